@@ -143,6 +143,9 @@ public class ValidationException extends RuntimeException {
 
 		/** 이미 처리된 정보 입니다. */
 		String ActionUnprocessing = "error.ActionStatusType.unprocessing";
+
+		/** 다른 처리가 진행중이므로 잠금을 얻지 못했습니다. */
+		String LockTimeout = "error.lockTimeout";
 	}
 
 }
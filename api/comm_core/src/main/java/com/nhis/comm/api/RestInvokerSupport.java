@@ -1,7 +1,10 @@
 package com.nhis.comm.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nhis.comm.context.async.AsyncHandler;
+import com.nhis.comm.context.rest.RestAsyncInvoker;
 import com.nhis.comm.context.rest.RestInvoker;
+import com.nhis.comm.context.rest.RestScatter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.web.client.RestTemplate;
@@ -27,13 +30,18 @@ public abstract class RestInvokerSupport {
 	@Autowired //json mapper
 	protected ObjectMapper mapper;
 
+	@Autowired //async executor
+	protected AsyncHandler async;
+
 	//null point exception 방지
 	private Optional<RestInvoker> invoker = Optional.empty();
+	private Optional<RestAsyncInvoker> asyncInvoker = Optional.empty();
 
 	/** 초기화 작업을 수행 합니다。 */
 	@PostConstruct
 	public void initialize() {
 		invoker = Optional.of(new RestInvoker(template, mapper, rootUrl()));
+		asyncInvoker = Optional.of(new RestAsyncInvoker(invoker.get(), async.executor()));
 	}
 
 	/** API 연결 경로의 URL을 반환합니다。 */
@@ -45,4 +53,14 @@ public abstract class RestInvokerSupport {
 	protected RestInvoker invoker() {
 		return invoker.orElseThrow(() -> new IllegalStateException("먼저 initialize 메소드를 호출해주세요"));
 	}
+
+	/** Ribbon 을이용한 비동기 RestInvoker 을반환합니다。 */
+	protected RestAsyncInvoker asyncInvoker() {
+		return asyncInvoker.orElseThrow(() -> new IllegalStateException("먼저 initialize 메소드를 호출해주세요"));
+	}
+
+	/** 여러 요청을 병렬로 실행하는 RestScatter 를반환합니다。 */
+	protected RestScatter scatter(long timeoutMillis) {
+		return new RestScatter(async, timeoutMillis);
+	}
 }
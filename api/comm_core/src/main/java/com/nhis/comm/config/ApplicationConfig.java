@@ -2,20 +2,33 @@ package com.nhis.comm.config;
 
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import com.nhis.comm.context.AppSettingHandler;
+import com.nhis.comm.context.AppSettingWatcher;
 import com.nhis.comm.context.DomainHelper;
 import com.nhis.comm.context.ResourceBundleHandler;
 import com.nhis.comm.context.Timestamper;
 import com.nhis.comm.context.actor.ActorSession;
+import com.nhis.comm.context.async.AsyncHandler;
 import com.nhis.comm.context.audit.AuditHandler;
+import com.nhis.comm.context.audit.AuditMaintenance;
+import com.nhis.comm.context.audit.AuditMetrics;
+import com.nhis.comm.context.audit.AuditWriter;
 import com.nhis.comm.context.lock.IdLockHandler;
+import com.nhis.comm.context.lock.IdLockProvider;
+import com.nhis.comm.context.lock.LeaseIdLockProvider;
+import com.nhis.comm.context.orm.OrmCountCache;
+import com.nhis.comm.context.orm.OrmQueryCache;
+import com.nhis.comm.context.rest.RestHttpClientFactory;
 import com.nhis.comm.controller.RestErrorAdvice;
 import com.nhis.comm.controller.RestErrorController;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 /**
@@ -33,6 +46,8 @@ public class ApplicationConfig {
 	static class WebMvcConfig extends WebMvcConfigurerAdapter {
 		@Autowired
 		private MessageSource message;
+		@Autowired
+		private AsyncHandler async;
 
 		/** Hibernate의 LazyLoading 회피 대응。  see JacksonAutoConfiguration */
 		@Bean
@@ -54,6 +69,13 @@ public class ApplicationConfig {
 			return validator();
 		}
 
+		/** 비동기 요청 (Callable 반환)을 AsyncHandler로 실행합니다。 */
+		@Override
+		public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+			configurer.setTaskExecutor(new TaskExecutorAdapter(async.executor()));
+			configurer.setDefaultTimeout(async.timeoutMillis());
+		}
+
 	}
 
 	/** 인프라 층 (context 부하)의 구성 요소 정의를 표현합니다 */
@@ -75,6 +97,17 @@ public class ApplicationConfig {
 		AppSettingHandler appSettingHandler() {
 			return new AppSettingHandler();
 		}
+		/** 다른 노드의 설정 정보 변경 감지 */
+		@Bean
+		@ConditionalOnProperty(prefix = "extension.setting.watch", name = "enabled", matchIfMissing = false)
+		AppSettingWatcher appSettingWatcher() {
+			return new AppSettingWatcher();
+		}
+		/** 요청 스레드와 분리한 비동기 실행 */
+		@Bean
+		AsyncHandler asyncHandler() {
+			return new AsyncHandler();
+		}
 		@Bean
 		AuditHandler auditHandler() {
 			return new AuditHandler();
@@ -84,9 +117,45 @@ public class ApplicationConfig {
 			return new AuditHandler.AuditPersister();
 		}
 		@Bean
+		AuditMetrics auditMetrics() {
+			return new AuditMetrics();
+		}
+		/** 감사 로그의 비동기 기록 */
+		@Bean
+		@ConditionalOnProperty(prefix = "extension.audit.async", name = "enabled", matchIfMissing = false)
+		AuditWriter auditWriter() {
+			return new AuditWriter();
+		}
+		/** 감사 로그의 시간 단위 집계와 보관 기간 관리 */
+		@Bean
+		@ConditionalOnProperty(prefix = "extension.audit.maintenance", name = "enabled", matchIfMissing = false)
+		AuditMaintenance auditMaintenance() {
+			return new AuditMaintenance();
+		}
+		@Bean
 		IdLockHandler idLockHandler() {
 			return new IdLockHandler();
 		}
+		/** 노드를 넘는 ID 잠금 (시스템 스키마의 리스 테이블) */
+		@Bean
+		@ConditionalOnProperty(prefix = "extension.idlock.lease", name = "enabled", matchIfMissing = false)
+		IdLockProvider idLockProvider() {
+			return new LeaseIdLockProvider();
+		}
+		/** 서비스간 요청의 커넥션 풀 (@LoadBalanced RestTemplate에 적용) */
+		@Bean
+		@ConditionalOnProperty(prefix = "extension.rest.client", name = "enabled", matchIfMissing = false)
+		RestHttpClientFactory restHttpClientFactory() {
+			return new RestHttpClientFactory();
+		}
+		@Bean
+		OrmCountCache ormCountCache() {
+			return new OrmCountCache();
+		}
+		@Bean
+		OrmQueryCache ormQueryCache() {
+			return new OrmQueryCache();
+		}
 		/*@Bean
 		MailHandler mailHandler() {
 			return new MailHandler();
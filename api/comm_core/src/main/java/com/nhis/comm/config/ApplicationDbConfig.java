@@ -1,7 +1,9 @@
 package com.nhis.comm.config;
 
 import com.nhis.comm.context.orm.DefaultRepository;
+import com.nhis.comm.context.orm.OrmCacheMetrics;
 import com.nhis.comm.context.orm.OrmInterceptor;
+import com.nhis.comm.context.orm.OrmPoolMetrics;
 import com.nhis.comm.context.orm.SystemRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -16,6 +18,8 @@ import com.nhis.comm.context.orm.SystemRepository.SystemDataSourceProperties;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * 응용 프로그램의 데이터베이스 연결 정의를 표현합니다
@@ -29,6 +33,23 @@ public class ApplicationDbConfig {
     OrmInterceptor ormInterceptor() {
         return new OrmInterceptor();
     }
+
+    /** ORM 2차 캐시 통계 (actuator metrics) */
+    @Bean
+    OrmCacheMetrics ormCacheMetrics(
+            @Qualifier(DefaultRepository.BeanNameEmf) final EntityManagerFactory emf,
+            @Qualifier(SystemRepository.BeanNameEmf) final EntityManagerFactory systemEmf) {
+        Map<String, EntityManagerFactory> factories = new LinkedHashMap<>();
+        factories.put("default", emf);
+        factories.put("system", systemEmf);
+        return new OrmCacheMetrics(factories);
+    }
+
+    /** 커넥션 풀 통계 (actuator metrics) */
+    @Bean
+    OrmPoolMetrics ormPoolMetrics() {
+        return new OrmPoolMetrics();
+    }
     
     /** 표준 스키마에 대한 연결 정의를 표현합니다. */
     @Configuration
@@ -36,14 +57,16 @@ public class ApplicationDbConfig {
         @Bean
         @Primary
         @DependsOn(DefaultRepository.BeanNameEmf)
-        DefaultRepository defaultRepository() {
-            return new DefaultRepository();
+        DefaultRepository defaultRepository(DefaultDataSourceProperties props) {
+            DefaultRepository rep = new DefaultRepository();
+            rep.setBatchSize(props.getJpa().getBatchSize());
+            return rep;
         }
         
         @Bean(name = DefaultRepository.BeanNameDs, destroyMethod = "close")
         @Primary
-        DataSource dataSource(DefaultDataSourceProperties props) {
-            return props.dataSource();
+        DataSource dataSource(DefaultDataSourceProperties props, OrmPoolMetrics poolMetrics) {
+            return props.dataSource(poolMetrics);
         }
         
         @Bean(name = DefaultRepository.BeanNameEmf)
@@ -70,13 +93,15 @@ public class ApplicationDbConfig {
         
         @Bean
         @DependsOn(SystemRepository.BeanNameEmf)
-        SystemRepository systemRepository() {
-            return new SystemRepository();
+        SystemRepository systemRepository(SystemDataSourceProperties props) {
+            SystemRepository rep = new SystemRepository();
+            rep.setBatchSize(props.getJpa().getBatchSize());
+            return rep;
         }
         
         @Bean(name = SystemRepository.BeanNameDs, destroyMethod = "close")
-        DataSource systemDataSource(SystemDataSourceProperties props) {
-            return props.dataSource();
+        DataSource systemDataSource(SystemDataSourceProperties props, OrmPoolMetrics poolMetrics) {
+            return props.dataSource(poolMetrics);
         }
         
         @Bean(name = SystemRepository.BeanNameEmf)
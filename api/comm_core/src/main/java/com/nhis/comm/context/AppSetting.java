@@ -1,17 +1,21 @@
 package com.nhis.comm.context;
 
 import com.nhis.comm.context.orm.OrmActiveRecord;
+import com.nhis.comm.context.orm.OrmPreparedQuery;
 import com.nhis.comm.context.orm.OrmRepository;
 import com.nhis.comm.model.constraints.OutlineEmpty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.criterion.MatchMode;
 
 import javax.persistence.*;
 import javax.validation.constraints.Size;
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +26,8 @@ import java.util.Optional;
  * <p> 미리 초기 데이터가 등록되는 것을 전제로하고 값만 변경 허용합니다.
  */
 @javax.persistence.Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -113,15 +119,17 @@ public class AppSetting extends OrmActiveRecord<AppSetting> {
 		return update(rep);
 	}
 
+	/** 검색 쿼리 (형태를 한 번만 컴파일합니다) */
+	private static final OrmPreparedQuery<AppSetting> FindQuery = OrmPreparedQuery.of("AppSetting.find", AppSetting.class,
+			(criteria) -> criteria
+					.likeParam(new String[]{"id", "category", "outline"}, "keyword", MatchMode.ANYWHERE)
+					.result());
+
 	/**
 	 * 응용 프로그램 설정 정보를 검색합니다.
 	 */
 	public static List<AppSetting> find(OrmRepository rep, FindAppSetting p) {
-		return rep.tmpl().find(AppSetting.class, (criteria) -> {
-			return criteria
-					.like(new String[]{"id", "category", "outline"}, p.keyword, MatchMode.ANYWHERE)
-					.result();
-		});
+		return rep.tmpl().find(FindQuery, Collections.singletonMap("keyword", p.keyword));
 	}
 
 	/**
@@ -0,0 +1,57 @@
+package com.nhis.comm.context;
+
+import com.nhis.comm.context.orm.OrmActiveRecord;
+import com.nhis.comm.context.orm.OrmRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Created by sewoo on 2017. 2. 20..
+ *
+ * 응용 프로그램 설정 정보의 변경 이력을 표현합니다. (시스템 스키마)
+ * <p> 각 노드의 AppSettingWatcher가 변경 일시로 추적하여 자신의 캐시를 파기합니다.
+ */
+@javax.persistence.Entity
+@Table(indexes = @Index(columnList = "changeDate"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class AppSettingChange extends OrmActiveRecord<AppSettingChange> {
+	private static final long serialVersionUID = 1l;
+
+	@Id
+	@GeneratedValue
+	private Long id;
+	/** 설정ID */
+	@NotNull
+	@Size(max = 120)
+	private String settingId;
+	/** 변경 일시 */
+	@NotNull
+	private LocalDateTime changeDate;
+
+	/** 변경 이력을 등록합니다. */
+	public static AppSettingChange register(OrmRepository rep, String settingId, LocalDateTime now) {
+		return new AppSettingChange(null, settingId, now).save(rep);
+	}
+
+	/** 지정 일시 이후의 변경 이력을 오래된 순서로 검색합니다. */
+	public static List<AppSettingChange> find(OrmRepository rep, LocalDateTime from) {
+		return rep.tmpl().find("from AppSettingChange c where c.changeDate>=?1 order by c.changeDate, c.id", from);
+	}
+
+	/** 지정 일시보다 앞의 변경 이력을 삭제합니다. */
+	public static int purge(OrmRepository rep, LocalDateTime before) {
+		return rep.tmpl().execute("delete from AppSettingChange c where c.changeDate<?1", before);
+	}
+
+}
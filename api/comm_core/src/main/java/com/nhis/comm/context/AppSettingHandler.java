@@ -1,26 +1,53 @@
 package com.nhis.comm.context;
 
 import com.nhis.comm.context.orm.SystemRepository;
+import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * Created by sewoo on 2016. 12. 28..
  *
  * 응용 프로그램 설정 정보에 대한 접근 방법을 제공합니다
+ * <p> AppSettingWatcher 이용시에는 변경 이력을 등록하여 다른 노드에 변경을 전달합니다.
+ * <p> useSnapshot이 true일 때는 기동시에 모든 설정 정보를 한 번에 읽은 스냅샷 (AppSettingSnapshot)으로
+ * 응답합니다. 스냅샷은 설정 정보의 변경 / 캐시 파기시에 다시 읽어서 교체합니다.
+ * 빈번하게 참조하는 처리는 트랜잭션을 시작하지 않는 #snapshot을 이용하십시오.
  */
+@Setter
+@ConfigurationProperties(prefix = "extension.setting")
 public class AppSettingHandler {
 	@Autowired
 	@Lazy
 	private SystemRepository rep;
+	@Autowired
+	@Lazy
+	@Qualifier(SystemRepository.BeanNameTx)
+	private PlatformTransactionManager tx;
+	@Autowired(required = false)
+	private AppSettingWatcher watcher;
 	/** 설정시 고정 키 / 값을 반환 모의 모드로 */
 	private final Optional<Map<String, String>> mockMap;
+	/** 모든 설정 정보를 스냅샷으로 보유할 때는 true */
+	private boolean useSnapshot = false;
+	/** 현재 스냅샷 (미로드시는 null) */
+	private final AtomicReference<AppSettingSnapshot> snapshot = new AtomicReference<>();
 
 	public AppSettingHandler() {
 		this.mockMap = Optional.empty();
@@ -36,6 +63,8 @@ public class AppSettingHandler {
 	public AppSetting setting(String id) {
 		if (mockMap.isPresent())
 			return mockSetting(id);
+		if (useSnapshot)
+			return snapshot().load(id);
 		AppSetting setting = AppSetting.load(rep, id);
 		setting.hashCode(); // for loading
 		return setting;
@@ -49,7 +78,54 @@ public class AppSettingHandler {
 	@CacheEvict(cacheNames = "AppSettingHandler.appSetting", key = "#id")
 	@Transactional(value = SystemRepository.BeanNameTx)
 	public AppSetting update(String id, String value) {
-		return mockMap.isPresent() ? mockSetting(id) : AppSetting.load(rep, id).update(rep, value);
+		if (mockMap.isPresent())
+			return mockSetting(id);
+		AppSetting setting = AppSetting.load(rep, id).update(rep, value);
+		if (watcher != null)
+			AppSettingChange.register(rep, id, rep.dh().time().date());
+		if (useSnapshot || snapshot.get() != null)
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					reload();
+				}
+			});
+		return setting;
+	}
+
+	/** 응용 프로그램 설정 정보의 캐시를 파기합니다. (ORM 2차 캐시 포함) */
+	@CacheEvict(cacheNames = "AppSettingHandler.appSetting", key = "#id")
+	public void evict(String id) {
+		if (mockMap.isPresent())
+			return;
+		rep.em().getEntityManagerFactory().getCache().evict(AppSetting.class, id);
+		if (useSnapshot || snapshot.get() != null)
+			reload();
+	}
+
+	/**
+	 * 설정 정보의 스냅샷을 반환합니다.
+	 * <p> 스냅샷을 이용하지 않을 때도 처음 호출시에 읽은 스냅샷을 반환합니다. (이후의 변경시에는 다시 읽습니다)
+	 */
+	public AppSettingSnapshot snapshot() {
+		AppSettingSnapshot v = snapshot.get();
+		return v != null ? v : reload();
+	}
+
+	/** 모든 설정 정보를 하나의 쿼리로 다시 읽어 스냅샷을 교체합니다. */
+	public AppSettingSnapshot reload() {
+		AppSettingSnapshot v = mockMap.isPresent()
+				? AppSettingSnapshot.of(mockMap.get().keySet().stream().map(this::mockSetting).collect(Collectors.toList()))
+				: new TransactionTemplate(tx).execute(status -> AppSettingSnapshot.of(rep.findAll(AppSetting.class)));
+		snapshot.set(v);
+		return v;
+	}
+
+	/** 기동시에 스냅샷을 읽습니다. */
+	@EventListener(ContextRefreshedEvent.class)
+	public void preload() {
+		if (useSnapshot)
+			reload();
 	}
 
 }
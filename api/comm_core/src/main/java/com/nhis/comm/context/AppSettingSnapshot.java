@@ -0,0 +1,153 @@
+package com.nhis.comm.context;
+
+import com.nhis.comm.ValidationException;
+import com.nhis.comm.ValidationException.ErrorKeys;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Created by sewoo on 2017. 2. 21..
+ *
+ * 응용 프로그램 설정 정보를 한 번에 읽은 변경 불가능한 스냅샷을 표현합니다.
+ * <p> 수치 / 논리값은 스냅샷 생성시에 한 번만 변환합니다. 변환할 수 없는 값은 참조시에 AppSetting과 같은 예외가 발생합니다.
+ * <p> 설정 정보의 변경시에는 스냅샷 전체를 다시 만들어 교체합니다. (AppSettingHandler 참조)
+ */
+public class AppSettingSnapshot {
+	private final Map<String, Value> values;
+
+	private AppSettingSnapshot(Map<String, Value> values) {
+		this.values = Collections.unmodifiableMap(values);
+	}
+
+	/** 설정 정보를 가져옵니다. */
+	public Optional<AppSetting> get(String id) {
+		Value v = values.get(id);
+		return v != null ? Optional.of(v.copy()) : Optional.empty();
+	}
+
+	/** 설정 정보를 가져옵니다. (존재하지 않을 때는 ValidationException) */
+	public AppSetting load(String id) {
+		return value(id).copy();
+	}
+
+	public String str(String id) {
+		return value(id).str;
+	}
+
+	public String str(String id, String defaultValue) {
+		Value v = values.get(id);
+		return v == null || v.str == null ? defaultValue : v.str;
+	}
+
+	public int intValue(String id) {
+		return value(id).intValue();
+	}
+
+	public int intValue(String id, int defaultValue) {
+		Value v = values.get(id);
+		return v == null || v.str == null ? defaultValue : v.intValue();
+	}
+
+	public long longValue(String id) {
+		return value(id).longValue();
+	}
+
+	public long longValue(String id, long defaultValue) {
+		Value v = values.get(id);
+		return v == null || v.str == null ? defaultValue : v.longValue();
+	}
+
+	public boolean bool(String id) {
+		return value(id).bool;
+	}
+
+	public boolean bool(String id, boolean defaultValue) {
+		Value v = values.get(id);
+		return v == null || v.str == null ? defaultValue : v.bool;
+	}
+
+	public BigDecimal decimal(String id) {
+		return value(id).decimal();
+	}
+
+	public BigDecimal decimal(String id, BigDecimal defaultValue) {
+		Value v = values.get(id);
+		return v == null || v.str == null ? defaultValue : v.decimal();
+	}
+
+	/** 설정 정보의 건수를 반환합니다. */
+	public int size() {
+		return values.size();
+	}
+
+	private Value value(String id) {
+		Value v = values.get(id);
+		if (v == null) {
+			throw new ValidationException(ErrorKeys.EntityNotFound);
+		}
+		return v;
+	}
+
+	/** 설정 정보로부터 스냅샷을 생성합니다. */
+	public static AppSettingSnapshot of(Collection<AppSetting> settings) {
+		Map<String, Value> values = new HashMap<>(settings.size() * 2);
+		settings.forEach(v -> values.put(v.getId(), new Value(v)));
+		return new AppSettingSnapshot(values);
+	}
+
+	/** 변환이 끝난 설정 값 */
+	private static class Value {
+		private final String id;
+		private final String category;
+		private final String outline;
+		private final String str;
+		private final Long longValue;
+		private final BigDecimal decimal;
+		private final boolean bool;
+
+		Value(AppSetting setting) {
+			this.id = setting.getId();
+			this.category = setting.getCategory();
+			this.outline = setting.getOutline();
+			this.str = setting.getValue();
+			this.longValue = parse(() -> Long.valueOf(str));
+			this.decimal = parse(() -> new BigDecimal(str));
+			this.bool = Boolean.parseBoolean(str);
+		}
+
+		private static <T> T parse(Supplier<T> parser) {
+			try {
+				return parser.get();
+			} catch (RuntimeException e) {
+				return null;
+			}
+		}
+
+		int intValue() {
+			long v = longValue();
+			if (v < Integer.MIN_VALUE || Integer.MAX_VALUE < v) {
+				return Integer.parseInt(str); // AppSetting#intValue와 같은 예외
+			}
+			return (int) v;
+		}
+
+		long longValue() {
+			return longValue != null ? longValue : Long.parseLong(str);
+		}
+
+		BigDecimal decimal() {
+			return decimal != null ? decimal : new BigDecimal(str);
+		}
+
+		AppSetting copy() {
+			return new AppSetting(id, category, outline, str);
+		}
+	}
+
+}
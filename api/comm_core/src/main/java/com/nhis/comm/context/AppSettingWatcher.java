@@ -0,0 +1,124 @@
+package com.nhis.comm.context;
+
+import com.nhis.comm.context.orm.SystemRepository;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sewoo on 2017. 2. 20..
+ *
+ * 다른 노드에서 변경된 응용 프로그램 설정 정보를 감지하여 자신의 노드의 캐시를 파기합니다.
+ * <p> AppSettingHandler#update는 변경 이력 (AppSettingChange)을 같은 트랜잭션으로 등록하고,
+ * 각 노드는 pollMillis 간격으로 변경 이력을 추적합니다. 캐시는 최대 pollMillis 정도 늦게 수렴합니다.
+ * <p> 커밋 지연과 노드 간의 시각 차이를 흡수하기 위해 직전 추적 일시의 overlapMillis 앞부터 검색하며,
+ * 이미 처리한 변경 이력은 무시합니다.
+ * <p> 영업일 (Timestamper#KeyDay)의 변경시에는 Timestamper가 보유한 영업일도 다시 읽습니다.
+ */
+@Setter
+@ConfigurationProperties(prefix = "extension.setting.watch")
+public class AppSettingWatcher {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private SystemRepository rep;
+	@Autowired
+	@Qualifier(SystemRepository.BeanNameTx)
+	private PlatformTransactionManager tx;
+	@Autowired
+	private AppSettingHandler setting;
+	@Autowired
+	private Timestamper time;
+
+	/** 변경 이력의 추적 간격 (msec) */
+	private long pollMillis = 5000L;
+	/** 직전 추적 일시보다 앞에서 다시 검색하는 시간 (msec) */
+	private long overlapMillis = 60000L;
+	/** 변경 이력의 보관 시간 (msec) */
+	private long retentionMillis = 86400000L;
+
+	private ScheduledExecutorService executor;
+	/** 직전 추적 일시 */
+	private LocalDateTime polled;
+	/** 처리한 변경 이력의 ID와 변경 일시 */
+	private final Map<Long, LocalDateTime> seen = new HashMap<>();
+
+	@PostConstruct
+	public void start() {
+		polled = time.date();
+		executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "setting-watcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::run, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+		try {
+			executor.awaitTermination(pollMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		try {
+			poll();
+		} catch (RuntimeException e) { // 다음 추적에 영향을주지 않도록
+			logger.warn("설정 정보의 변경 이력을 추적할 수 없습니다. [{}]", e.getMessage());
+		}
+	}
+
+	/**
+	 * 변경 이력을 추적하여 변경된 설정 정보의 캐시를 파기합니다.
+	 * @return 파기한 설정ID
+	 */
+	public synchronized Set<String> poll() {
+		LocalDateTime now = time.date();
+		LocalDateTime from = polled.minusNanos(overlapMillis * 1000000L);
+		List<AppSettingChange> changes = txNew().execute(status -> AppSettingChange.find(rep, from));
+		Set<String> ids = new LinkedHashSet<>();
+		changes.stream()
+				.filter(v -> seen.putIfAbsent(v.getId(), v.getChangeDate()) == null)
+				.forEach(v -> ids.add(v.getSettingId()));
+		seen.values().removeIf(v -> v.isBefore(from));
+		polled = now;
+		ids.forEach(setting::evict);
+		if (ids.contains(Timestamper.KeyDay)) {
+			time.refresh();
+		}
+		if (!ids.isEmpty()) {
+			logger.info("다른 노드에서 변경된 설정 정보를 다시 읽습니다. {}", ids);
+		}
+		txNew().execute(status -> AppSettingChange.purge(rep, now.minusNanos(retentionMillis * 1000000L)));
+		return ids;
+	}
+
+	private TransactionTemplate txNew() {
+		TransactionTemplate template = new TransactionTemplate(tx);
+		template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return template;
+	}
+
+}
@@ -4,6 +4,8 @@ import com.nhis.comm.context.actor.Actor;
 import com.nhis.comm.context.actor.ActorSession;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Created by sewoo on 2016. 12. 28..
@@ -40,8 +42,24 @@ public class DomainHelper {
 		return settingHandler.setting(id);
 	}
 
-	/** 응용 프로그램 설정 정보를 설정합니다 */
+	/**
+	 * 응용 프로그램 설정 정보를 설정합니다
+	 * <p> 영업일 (Timestamper.KeyDay)일 때는 Timestamper가 보유한 영업일도 다시 읽습니다. (트랜잭션 안에서는 커밋 후)
+	 */
 	public AppSetting settingSet(String id, String value) {
-		return settingHandler.update(id, value);
+		AppSetting setting = settingHandler.update(id, value);
+		if (Timestamper.KeyDay.equals(id)) {
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+					@Override
+					public void afterCommit() {
+						time.refresh();
+					}
+				});
+			} else {
+				time.refresh();
+			}
+		}
+		return setting;
 	}
 }
@@ -3,14 +3,19 @@ package com.nhis.comm.context;
 import com.nhis.comm.util.DateUtils;
 import com.nhis.comm.util.TimePoint;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Created by sewoo on 2016. 12. 28..
  * 일,시 유틸리티 구성요소 입니다.
+ * <p> 영업일은 처음 참조시에 AppSettingHandler에서 한 번만 읽어서 보유합니다.
+ * 보유한 영업일은 proceedDay 또는 refresh (다른 노드의 변경 통지 등)로 바뀝니다.
  */
 public class Timestamper {
 
@@ -20,6 +25,8 @@ public class Timestamper {
 	private AppSettingHandler setting;
 
 	private final Clock clock;
+	/** 현재 영업일 (미로드시는 null) */
+	private final AtomicReference<LocalDate> businessDay = new AtomicReference<>();
 
 	public Timestamper() {
 		clock = Clock.systemDefaultZone();
@@ -31,7 +38,21 @@ public class Timestamper {
 
 	/** 영업일을 반환합니다. */
 	public LocalDate day() {
-		return setting == null ? LocalDate.now(clock) : DateUtils.day(setting.setting(KeyDay).str());
+		if (setting == null) {
+			return LocalDate.now(clock);
+		}
+		LocalDate day = businessDay.get();
+		return day != null ? day : refresh();
+	}
+
+	/** 영업일을 AppSettingHandler에서 다시 읽습니다. */
+	public LocalDate refresh() {
+		if (setting == null) {
+			return LocalDate.now(clock);
+		}
+		LocalDate day = DateUtils.day(setting.setting(KeyDay).str());
+		businessDay.set(day);
+		return day;
 	}
 
 	/** 날짜와 시간을 반환합니다. */
@@ -47,11 +68,23 @@ public class Timestamper {
 	/**
 	 * 영업일을 지정된 날짜에 진행합니다.
 	 * <p>AppSettingHandler 설정시에만 유효합니다.
+	 * <p>트랜잭션 안에서는 커밋 후에 보유한 영업일을 바꿉니다.
 	 * @param day 업데이트 일
 	 */
 	public Timestamper proceedDay(LocalDate day) {
-		if (setting != null)
+		if (setting != null) {
 			setting.update(KeyDay, DateUtils.dayFormat(day));
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+					@Override
+					public void afterCommit() {
+						businessDay.set(day);
+					}
+				});
+			} else {
+				businessDay.set(day);
+			}
+		}
 		return this;
 	}
 
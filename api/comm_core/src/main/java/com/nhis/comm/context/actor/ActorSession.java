@@ -1,7 +1,14 @@
 package com.nhis.comm.context.actor;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * Created by sewoo on 2016. 12. 27..
+ * <p> 이용자는 스레드 단위로 보유합니다. 다른 스레드 (Executor / CompletableFuture / 병렬 스트림)에서 처리할 때는
+ * wrap으로 현재의 이용자를 인계하십시오. 실행 후에는 실행 스레드의 원래 이용자로 되돌립니다.
  */
 public class ActorSession {
 
@@ -24,4 +31,62 @@ public class ActorSession {
 		Actor actor = actorLocal.get();
 		return actor != null ? actor : Actor.Anonymous;
 	}
+
+	/** 현재의 이용자로 실행하는 Runnable을 반환합니다。 */
+	public Runnable wrap(final Runnable command) {
+		Actor actor = actor();
+		return () -> call(actor, () -> {
+			command.run();
+			return null;
+		});
+	}
+
+	/** 현재의 이용자로 실행하는 Supplier를 반환합니다。 */
+	public <T> Supplier<T> wrap(final Supplier<T> callable) {
+		Actor actor = actor();
+		return () -> call(actor, callable);
+	}
+
+	/** 현재의 이용자로 실행하는 Callable을 반환합니다。 */
+	public <T> Callable<T> wrapCallable(final Callable<T> callable) {
+		Actor actor = actor();
+		return () -> {
+			Actor current = actorLocal.get();
+			actorLocal.set(actor);
+			try {
+				return callable.call();
+			} finally {
+				restore(current);
+			}
+		};
+	}
+
+	/** 현재의 이용자로 실행하는 Function을 반환합니다。(병렬 스트림의 map 등) */
+	public <T, R> Function<T, R> wrap(final Function<T, R> function) {
+		Actor actor = actor();
+		return v -> call(actor, () -> function.apply(v));
+	}
+
+	/** 등록시의 이용자로 실행하는 Executor를 반환합니다。 */
+	public Executor wrapExecutor(final Executor executor) {
+		return command -> executor.execute(wrap(command));
+	}
+
+	private <T> T call(Actor actor, Supplier<T> callable) {
+		Actor current = actorLocal.get();
+		actorLocal.set(actor);
+		try {
+			return callable.get();
+		} finally {
+			restore(current);
+		}
+	}
+
+	private void restore(Actor actor) {
+		if (actor != null) {
+			actorLocal.set(actor);
+		} else {
+			actorLocal.remove();
+		}
+	}
 }
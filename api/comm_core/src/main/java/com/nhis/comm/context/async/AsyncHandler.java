@@ -0,0 +1,273 @@
+package com.nhis.comm.context.async;
+
+import com.nhis.comm.context.actor.ActorSession;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Created by sewoo on 2017. 2. 23..
+ *
+ * DB / 잠금 / 감사 기록 등으로 블록되는 처리를 요청 스레드 (Tomcat)와 분리하여 실행합니다.
+ * <p> 실행 환경이 가상 스레드를 지원하고 virtualThreads가 true일 때는 처리마다 가상 스레드로 실행하며,
+ * 그 외에는 poolSize의 스레드 풀로 실행합니다. 스레드 풀은 poolSize까지 스레드를 늘린 후에 대기 큐를 이용합니다.
+ * <p> 어느 쪽도 동시에 받는 처리는 poolSize + queueCapacity 건까지이며, 넘었을 때는 RejectedExecutionException으로 실패합니다.
+ * (가상 스레드도 DB 커넥션 등의 자원은 한정되므로 무제한으로 받지 않습니다)
+ * <p> 등록시의 이용자를 실행 스레드에 인계합니다. (ActorSession#wrap 참조)
+ * 트랜잭션은 스레드를 넘을 수 없으므로 실행 스레드에서 새로 시작하십시오. (ServiceSupport#txAsync 참조)
+ * 트랜잭션 안에서 등록했을 때는 커밋 후에 실행하며, 롤백시에는 실행하지 않고 취소합니다.
+ * <p> 처리 시간의 제한은 within으로 지정합니다.
+ * <p> 실행 상태는 actuator의 metrics (async.*)로 공개됩니다.
+ */
+@Setter
+@ConfigurationProperties(prefix = "extension.async")
+public class AsyncHandler implements PublicMetrics {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private ActorSession session;
+
+	/** 가상 스레드를 지원하는 실행 환경에서 가상 스레드를 이용할 때는 true */
+	private boolean virtualThreads = false;
+	/** 스레드 풀의 스레드 수 (가상 스레드 이용시는 동시에 실행하는 처리 수와 함께 제한에 이용) */
+	private int poolSize = 64;
+	/** 실행을 기다리는 처리의 최대 건수 */
+	private int queueCapacity = 200;
+	/** 미사용 스레드를 정지하기까지의 시간 (msec) */
+	private long keepAliveMillis = 60000L;
+	/** 비동기 요청 (DeferredResult / Callable)의 타임아웃 (msec) */
+	private long timeoutMillis = 30000L;
+	/** 종료시에 실행 중인 처리를 기다리는 최대 시간 (msec) */
+	private long shutdownMillis = 10000L;
+
+	private ExecutorService executor;
+	private boolean virtual;
+	/** 가상 스레드 이용시에 받은 처리 수의 제한 */
+	private Semaphore permits;
+	/** 처리 시간 제한의 타이머 */
+	private ScheduledThreadPoolExecutor timer;
+	private final Executor actorExecutor = this::execute;
+
+	private final AtomicInteger active = new AtomicInteger();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+
+	@PostConstruct
+	public void start() {
+		executor = virtualThreads ? virtualExecutor() : null;
+		virtual = executor != null;
+		if (!virtual) {
+			AtomicLong sequence = new AtomicLong();
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize,
+					keepAliveMillis, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+						Thread thread = new Thread(r, "async-" + sequence.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		} else {
+			permits = new Semaphore(poolSize + queueCapacity);
+		}
+		timer = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread thread = new Thread(r, "async-timer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		timer.setRemoveOnCancelPolicy(true);
+		logger.info("비동기 실행을 {}로 시작합니다. [max={}, queue={}]", virtual ? "가상 스레드" : "스레드 풀", poolSize, queueCapacity);
+	}
+
+	/** 가상 스레드의 Executor를 생성합니다. (Java 21 미만은 null) */
+	private ExecutorService virtualExecutor() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "async-", 1L);
+			ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+			return (ExecutorService) Executors.class
+					.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		timer.shutdownNow();
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(shutdownMillis, TimeUnit.MILLISECONDS)) {
+				logger.warn("종료 대기 시간 안에 끝나지 않은 비동기 처리를 중단합니다.");
+				executor.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** 처리를 비동기로 실행합니다. */
+	public <T> CompletableFuture<T> supply(Supplier<T> callable) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		submit(() -> {
+			try {
+				future.complete(callable.get());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		}, future);
+		return future;
+	}
+
+	/** 처리를 비동기로 실행합니다. */
+	public CompletableFuture<Void> run(Runnable command) {
+		return supply(() -> {
+			command.run();
+			return null;
+		});
+	}
+
+	private void submit(Runnable task, CompletableFuture<?> future) {
+		Runnable command = () -> {
+			try {
+				execute(task);
+			} catch (RejectedExecutionException e) {
+				future.completeExceptionally(e);
+			}
+		};
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			command.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				command.run();
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				if (status != TransactionSynchronization.STATUS_COMMITTED) {
+					future.cancel(false);
+				}
+			}
+		});
+	}
+
+	/**
+	 * timeoutMillis 안에 완료하지 않았을 때는 TimeoutException으로 완료하는 CompletableFuture를 반환합니다.
+	 * <p> 원래의 처리는 중단하지 않습니다. 블록되는 처리는 처리 자체에도 타임아웃을 설정하십시오.
+	 * timeoutMillis에 0 이하를 지정했을 때는 제한하지 않습니다.
+	 */
+	public <T> CompletableFuture<T> within(CompletableFuture<T> future, long timeoutMillis) {
+		if (timeoutMillis <= 0 || future.isDone()) {
+			return future;
+		}
+		CompletableFuture<T> result = new CompletableFuture<>();
+		ScheduledFuture<?> timeout = timer.schedule(() -> {
+			if (result.completeExceptionally(new TimeoutException("처리가 " + timeoutMillis + "ms 안에 완료되지 않았습니다."))) {
+				timedOut.increment();
+			}
+		}, timeoutMillis, TimeUnit.MILLISECONDS);
+		future.whenComplete((v, e) -> {
+			timeout.cancel(false);
+			if (e != null) {
+				result.completeExceptionally(e);
+			} else {
+				result.complete(v);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * 등록시의 이용자를 인계하는 Executor를 반환합니다.
+	 * <p> CompletableFuture#supplyAsync 등에 전달하십시오. 트랜잭션의 커밋은 기다리지 않습니다.
+	 */
+	public Executor executor() {
+		return actorExecutor;
+	}
+
+	private void execute(Runnable task) {
+		Runnable command = session.wrap(task);
+		if (permits != null && !permits.tryAcquire()) {
+			rejected.increment();
+			throw new RejectedExecutionException("동시에 받을 수 있는 비동기 처리 수를 넘었습니다. [" + (poolSize + queueCapacity) + "]");
+		}
+		try {
+			executor.execute(() -> {
+				active.incrementAndGet();
+				try {
+					command.run();
+				} finally {
+					completed.increment();
+					active.decrementAndGet();
+					if (permits != null) {
+						permits.release();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			if (permits != null) {
+				permits.release();
+			}
+			rejected.increment();
+			throw e;
+		}
+	}
+
+	/** 비동기 요청 (DeferredResult / Callable)의 타임아웃 (msec)을 반환합니다. */
+	public long timeoutMillis() {
+		return timeoutMillis;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> metrics = new ArrayList<>();
+		metrics.add(new Metric<>("async.virtual", virtual ? 1 : 0));
+		metrics.add(new Metric<>("async.active", active.get()));
+		if (executor instanceof ThreadPoolExecutor) {
+			ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+			metrics.add(new Metric<>("async.pool", pool.getPoolSize()));
+			metrics.add(new Metric<>("async.queue", pool.getQueue().size()));
+		}
+		metrics.add(new Metric<>("async.completed", completed.sum()));
+		metrics.add(new Metric<>("async.rejected", rejected.sum()));
+		metrics.add(new Metric<>("async.timeout", timedOut.sum()));
+		return metrics;
+	}
+
+}
@@ -26,6 +26,7 @@ import java.time.LocalDateTime;
  */
 
 @Entity
+@Table(indexes = @Index(columnList = "startDate"))
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class AuditActor extends OrmActiveRecord<AuditActor> {
@@ -65,31 +66,28 @@ public class AuditActor extends OrmActiveRecord<AuditActor> {
 
 	/** 이용자 감사 로그를 완료 상태로합니다. */
 	public AuditActor finish(final SystemRepository rep) {
-		LocalDateTime now = rep.dh().time().date();
-		setStatusType(ActionStatusType.Processed);
-		setEndDate(now);
-		setTime(DateUtils.between(startDate, endDate).get().toMillis());
-		return update(rep);
+		return close(ActionStatusType.Processed, null, rep.dh().time().date()).update(rep);
 	}
 
 	/** 이용자 감사 로그를 취소 상태로합니다. */
 	public AuditActor cancel(final SystemRepository rep, String errorReason) {
-		LocalDateTime now = rep.dh().time().date();
-		setStatusType(ActionStatusType.Cancelled);
-		setErrorReason(StringUtils.abbreviate(errorReason, 250));
-		setEndDate(now);
-		setTime(DateUtils.between(startDate, endDate).get().toMillis());
-		return update(rep);
+		return close(ActionStatusType.Cancelled, errorReason, rep.dh().time().date()).update(rep);
 	}
 
 	/** 이용자 감사 로그를 예외 상태로합니다. */
 	public AuditActor error(final SystemRepository rep, String errorReason) {
-		LocalDateTime now = rep.dh().time().date();
-		setStatusType(ActionStatusType.Error);
-		setErrorReason(StringUtils.abbreviate(errorReason, 250));
+		return close(ActionStatusType.Error, errorReason, rep.dh().time().date()).update(rep);
+	}
+
+	/** 이용자 감사 로그를 종료 상태로 변경합니다. (영속화는 하지 않습니다) */
+	public AuditActor close(ActionStatusType statusType, String errorReason, LocalDateTime now) {
+		setStatusType(statusType);
+		if (errorReason != null) {
+			setErrorReason(StringUtils.abbreviate(errorReason, 250));
+		}
 		setEndDate(now);
 		setTime(DateUtils.between(startDate, endDate).get().toMillis());
-		return update(rep);
+		return this;
 	}
 
 	/** 이용자 감사 로그를 등록합니다 */
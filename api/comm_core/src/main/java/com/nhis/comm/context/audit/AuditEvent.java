@@ -21,6 +21,7 @@ import lombok.*;
  * 시스템 이벤트 감사 로그를 표현합니다.
  */
 @Entity
+@Table(indexes = @Index(columnList = "startDate"))
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class AuditEvent extends OrmActiveRecord<AuditEvent> {
@@ -48,31 +49,28 @@ public class AuditEvent extends OrmActiveRecord<AuditEvent> {
 
 	/** 이벤트 감사 로그를 완료 상태로합니다 */
 	public AuditEvent finish(final SystemRepository rep) {
-		LocalDateTime now = rep.dh().time().date();
-		setStatusType(ActionStatusType.Processed);
-		setEndDate(now);
-		setTime(DateUtils.between(startDate, endDate).get().toMillis());
-		return update(rep);
+		return close(ActionStatusType.Processed, null, rep.dh().time().date()).update(rep);
 	}
 
 	/** 이벤트 감사 로그를 취소 상태로합니다 */
 	public AuditEvent cancel(final SystemRepository rep, String errorReason) {
-		LocalDateTime now = rep.dh().time().date();
-		setStatusType(ActionStatusType.Cancelled);
-		setErrorReason(StringUtils.abbreviate(errorReason, 250));
-		setEndDate(now);
-		setTime(DateUtils.between(startDate, endDate).get().toMillis());
-		return update(rep);
+		return close(ActionStatusType.Cancelled, errorReason, rep.dh().time().date()).update(rep);
 	}
 
 	/** 이벤트 감사 로그를 예외 상태에 있습니다. */
 	public AuditEvent error(final SystemRepository rep, String errorReason) {
-		LocalDateTime now = rep.dh().time().date();
-		setStatusType(ActionStatusType.Error);
-		setErrorReason(StringUtils.abbreviate(errorReason, 250));
+		return close(ActionStatusType.Error, errorReason, rep.dh().time().date()).update(rep);
+	}
+
+	/** 이벤트 감사 로그를 종료 상태로 변경합니다. (영속화는 하지 않습니다) */
+	public AuditEvent close(ActionStatusType statusType, String errorReason, LocalDateTime now) {
+		setStatusType(statusType);
+		if (errorReason != null) {
+			setErrorReason(StringUtils.abbreviate(errorReason, 250));
+		}
 		setEndDate(now);
 		setTime(DateUtils.between(startDate, endDate).get().toMillis());
-		return update(rep);
+		return this;
 	}
 
 	/** 이벤트 감사 로그를 등록합니다。 */
@@ -1,5 +1,6 @@
 package com.nhis.comm.context.audit;
 
+import com.nhis.comm.ActionStatusType;
 import com.nhis.comm.InvocationException;
 import com.nhis.comm.ValidationException;
 import com.nhis.comm.context.actor.Actor;
@@ -15,6 +16,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 /**
@@ -23,17 +25,28 @@ import java.util.function.Supplier;
  * <p> 암시 적 적용을 원하는 경우 AOP와의 제휴도 검토하십시오.
  * <p> 대상이되는 로그는 Logger뿐만 아니라 시스템 스키마 감사 테이블에 요청 합니다.
  * (시작과 완료시 다른 TX함으로써 응답 없음 상태를 감지 가능)
+ * <p> AuditWriter가 등록되어 있을 때는 요청 스레드에서 TX를 발행하지 않고 비동기로 기록합니다.
+ * <p> 처리 시간은 AuditMetrics에 카테고리별로 집계됩니다.
+ * <p> 로그 메시지는 로그 레벨이 유효할 때만 조립합니다.
  */
 @Setter
 public class AuditHandler {
 	public static final Logger LoggerActor = LoggerFactory.getLogger("Audit.Actor");
 	public static final Logger LoggerEvent = LoggerFactory.getLogger("Audit.Event");
 	protected Logger loggerSystem = LoggerFactory.getLogger(getClass());
+	private static final String FormatActor = "{} [{}] {}";
+	private static final String FormatEvent = "{} {}";
+	private static final String FormatActorElapsed = FormatActor + " [{}ms]";
+	private static final String FormatEventElapsed = FormatEvent + " [{}ms]";
 
 	@Autowired
 	private ActorSession session;
 	@Autowired
 	private AuditPersister persister;
+	@Autowired(required = false)
+	private AuditWriter writer;
+	@Autowired(required = false)
+	private AuditMetrics metrics;
 
 	/** 준 처리에 대한 감사 로그를 기록합니다. */
 	public <T> T audit(String message, final Supplier<T> callable) {
@@ -50,21 +63,41 @@ public class AuditHandler {
 
 	/** 준 처리에 대한 감사 로그를 기록합니다. */
 	public <T> T audit(String category, String message, final Supplier<T> callable) {
-		logger().trace(message(message, "[시작]", null));
-		long start = System.currentTimeMillis();
+		Actor actor = session.actor();
+		boolean system = actor.getRoleType().isSystem();
+		Logger logger = system ? LoggerEvent : LoggerActor;
+		if (logger.isTraceEnabled()) {
+			if (system) {
+				logger.trace(FormatEvent, "[시작]", message);
+			} else {
+				logger.trace(FormatActor, "[시작]", actor.getId(), message);
+			}
+		}
+		long start = System.nanoTime();
 		try {
-			T v = session.actor().getRoleType().isSystem() ? callEvent(category, message, callable)
-					: callAudit(category, message, callable);
-			logger().info(message(message, "[완료]", start));
+			T v = system ? callEvent(category, message, callable) : callAudit(category, message, callable);
+			long elapsed = elapsed(category, start, ActionStatusType.Processed);
+			if (logger.isInfoEnabled()) {
+				logger.info(format(system), args("[완료]", actor, message, elapsed));
+			}
 			return v;
 		} catch (ValidationException e) {
-			logger().warn(message(message, "[심사예]", start));
+			long elapsed = elapsed(category, start, ActionStatusType.Cancelled);
+			if (logger.isWarnEnabled()) {
+				logger.warn(format(system), args("[심사예]", actor, message, elapsed));
+			}
 			throw e;
 		} catch (RuntimeException e) {
-			logger().error(message(message, "[예외]", start));
+			long elapsed = elapsed(category, start, ActionStatusType.Error);
+			if (logger.isErrorEnabled()) {
+				logger.error(format(system), args("[예외]", actor, message, elapsed));
+			}
 			throw (RuntimeException) e;
 		} catch (Exception e) {
-			logger().error(message(message, "[예외]", start));
+			long elapsed = elapsed(category, start, ActionStatusType.Error);
+			if (logger.isErrorEnabled()) {
+				logger.error(format(system), args("[예외]", actor, message, elapsed));
+			}
 			throw new InvocationException("error.Exception", e);
 		}
 	}
@@ -77,59 +110,69 @@ public class AuditHandler {
 		});
 	}
 
-	private Logger logger() {
-		return session.actor().getRoleType().isSystem() ? LoggerEvent : LoggerActor;
+	/** 처리 시간 (nsec)을 AuditMetrics에 기록하여 반환합니다. */
+	private long elapsed(String category, long startNanos, ActionStatusType statusType) {
+		long elapsed = System.nanoTime() - startNanos;
+		if (metrics != null) {
+			metrics.record(category, elapsed, statusType);
+		}
+		return elapsed;
 	}
 
-	private String message(String message, String prefix, Long startMillis) {
-		Actor actor = session.actor();
-		StringBuilder sb = new StringBuilder(prefix + " ");
-		if (actor.getRoleType().notSystem()) {
-			sb.append("[" + actor.getId() + "] ");
-		}
-		sb.append(message);
-		if (startMillis != null) {
-			sb.append(" [" + (System.currentTimeMillis() - startMillis) + "ms]");
-		}
-		return sb.toString();
+	private static String format(boolean system) {
+		return system ? FormatEventElapsed : FormatActorElapsed;
+	}
+
+	/** 종료시의 로그 인수. 시스템 이용자는 이용자 ID를 생략합니다. */
+	private static Object[] args(String prefix, Actor actor, String message, long elapsedNanos) {
+		long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+		return actor.getRoleType().isSystem() ? new Object[] { prefix, message, millis }
+				: new Object[] { prefix, actor.getId(), message, millis };
 	}
 
 	public <T> T callAudit(String category, String message, final Supplier<T> callable) {
 		Optional<AuditActor> audit = Optional.empty();
 		try {
 			try { // 시스템 스키마의 장애는 본질적인 오류에 영향을주지 않도록
-				audit = Optional.of(persister.start(AuditActor.RegAuditActor.of(category, message)));
+				audit = Optional.of(start(AuditActor.RegAuditActor.of(category, message)));
 			} catch (Exception e) {
 				loggerSystem.error(e.getMessage(), e);
 			}
 			T v = callable.get();
 			try {
-				audit.ifPresent(persister::finish);
+				audit.ifPresent(this::finish);
 			} catch (Exception e) {
 				loggerSystem.error(e.getMessage(), e);
 			}
 			return v;
 		} catch (ValidationException e) {
 			try {
-				audit.ifPresent((v) -> persister.cancel(v, e.getMessage()));
+				audit.ifPresent((v) -> cancel(v, e.getMessage()));
 			} catch (Exception ex) {
 				loggerSystem.error(ex.getMessage(), ex);
 			}
 			throw e;
 		} catch (RuntimeException e) {
 			try {
-				audit.ifPresent((v) -> persister.error(v, e.getMessage()));
+				audit.ifPresent((v) -> error(v, e.getMessage()));
 			} catch (Exception ex) {
 				loggerSystem.error(ex.getMessage(), ex);
 			}
 			throw e;
 		} catch (Exception e) {
 			try {
-				audit.ifPresent((v) -> persister.error(v, e.getMessage()));
+				audit.ifPresent((v) -> error(v, e.getMessage()));
 			} catch (Exception ex) {
 				loggerSystem.error(ex.getMessage(), ex);
 			}
 			throw new InvocationException(e);
+		} catch (Error e) { // 감사 로그를 처리 중인 채로 남기지 않도록 (AuditWriter의 추적 포함)
+			try {
+				audit.ifPresent((v) -> error(v, e.toString()));
+			} catch (Throwable ex) {
+				loggerSystem.error(ex.getMessage(), ex);
+			}
+			throw e;
 		}
 	}
 
@@ -137,41 +180,80 @@ public class AuditHandler {
 		Optional<AuditEvent> audit = Optional.empty();
 		try {
 			try { // 시스템 스키마의 장애는 본질적인 오류에 영향을주지 않도록
-				audit = Optional.of(persister.start(RegAuditEvent.of(category, message)));
+				audit = Optional.of(start(RegAuditEvent.of(category, message)));
 			} catch (Exception e) {
 				loggerSystem.error(e.getMessage(), e);
 			}
 			T v = callable.get();
 			try {
-				audit.ifPresent(persister::finish);
+				audit.ifPresent(this::finish);
 			} catch (Exception e) {
 				loggerSystem.error(e.getMessage(), e);
 			}
 			return v;
 		} catch (ValidationException e) {
 			try {
-				audit.ifPresent((v) -> persister.cancel(v, e.getMessage()));
+				audit.ifPresent((v) -> cancel(v, e.getMessage()));
 			} catch (Exception ex) {
 				loggerSystem.error(ex.getMessage(), ex);
 			}
 			throw e;
 		} catch (RuntimeException e) {
 			try {
-				audit.ifPresent((v) -> persister.error(v, e.getMessage()));
+				audit.ifPresent((v) -> error(v, e.getMessage()));
 			} catch (Exception ex) {
 				loggerSystem.error(ex.getMessage(), ex);
 			}
 			throw (RuntimeException) e;
 		} catch (Exception e) {
 			try {
-				audit.ifPresent((v) -> persister.error(v, e.getMessage()));
+				audit.ifPresent((v) -> error(v, e.getMessage()));
 			} catch (Exception ex) {
 				loggerSystem.error(ex.getMessage(), ex);
 			}
 			throw new InvocationException(e);
+		} catch (Error e) { // 감사 로그를 처리 중인 채로 남기지 않도록 (AuditWriter의 추적 포함)
+			try {
+				audit.ifPresent((v) -> error(v, e.toString()));
+			} catch (Throwable ex) {
+				loggerSystem.error(ex.getMessage(), ex);
+			}
+			throw e;
 		}
 	}
 
+	private AuditActor start(AuditActor.RegAuditActor p) {
+		return writer != null ? writer.start(p) : persister.start(p);
+	}
+
+	private AuditActor finish(AuditActor audit) {
+		return writer != null ? writer.finish(audit) : persister.finish(audit);
+	}
+
+	private AuditActor cancel(AuditActor audit, String errorReason) {
+		return writer != null ? writer.cancel(audit, errorReason) : persister.cancel(audit, errorReason);
+	}
+
+	private AuditActor error(AuditActor audit, String errorReason) {
+		return writer != null ? writer.error(audit, errorReason) : persister.error(audit, errorReason);
+	}
+
+	private AuditEvent start(RegAuditEvent p) {
+		return writer != null ? writer.start(p) : persister.start(p);
+	}
+
+	private AuditEvent finish(AuditEvent event) {
+		return writer != null ? writer.finish(event) : persister.finish(event);
+	}
+
+	private AuditEvent cancel(AuditEvent event, String errorReason) {
+		return writer != null ? writer.cancel(event, errorReason) : persister.cancel(event, errorReason);
+	}
+
+	private AuditEvent error(AuditEvent event, String errorReason) {
+		return writer != null ? writer.error(event, errorReason) : persister.error(event, errorReason);
+	}
+
 	/**
 	 * 감사 로그를 시스템 스키마로 유지합니다.
 	 */
@@ -0,0 +1,426 @@
+package com.nhis.comm.context.audit;
+
+import com.nhis.comm.ActionStatusType;
+import com.nhis.comm.context.Entity;
+import com.nhis.comm.context.actor.Actor;
+import com.nhis.comm.context.audit.AuditWriter.Entry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32;
+
+/**
+ * Created by sewoo on 2017. 2. 14..
+ * 시스템 스키마에 기록하지 못한 감사 로그를 보관하는 로컬 저널.
+ * <p> 감사 로그는 세그먼트 파일 끝에 추가 기록만 합니다. 레코드는 길이와 CRC를 가지므로
+ * 기록 도중에 정지한 파일도 파손된 레코드 앞까지 재생됩니다.
+ * <p> 재생이 끝난 위치는 체크포인트 파일에 보유하므로 재기동 후에도 같은 감사 로그를 다시 기록하지 않습니다.
+ * <p> 레코드는 기록 키, 순번, 등록된 ID (미등록시는 없음)와 감사 로그의 항목을 가집니다.
+ * <p> 저널 전체의 크기는 maxBytes로 제한합니다. 넘었을 때는 추가를 거부하고 (isFull) 재생으로 빈 자리가 생기면 다시 받습니다.
+ */
+class AuditJournal implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(AuditJournal.class);
+	private static final String Suffix = ".journal";
+	private static final String Checkpoint = "checkpoint";
+	private static final byte TypeActor = 'A';
+	private static final byte TypeEvent = 'E';
+
+	private final File dir;
+	/** 세그먼트 파일의 최대 크기 (byte) */
+	private final long segmentBytes;
+	/** 추가할 때마다 디스크와 동기화할 때는 true */
+	private final boolean force;
+	/** 저널 전체의 최대 크기 (byte). 0 이하는 제한하지 않습니다. */
+	private final long maxBytes;
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+	private final DataOutputStream bufferData = new DataOutputStream(buffer);
+	private final ByteArrayOutputStream record = new ByteArrayOutputStream(512);
+	private final DataOutputStream data = new DataOutputStream(record);
+	private final CRC32 crc = new CRC32();
+	private FileChannel out;
+	private long segment;
+	/** 재생하지 않은 감사 로그가 있을 때는 true */
+	private volatile boolean pending;
+	/** 세그먼트 파일의 합계 크기 (byte) */
+	private final AtomicLong bytes = new AtomicLong();
+	/** 최대 크기를 넘어서 추가를 거부하고 있을 때는 true */
+	private volatile boolean full;
+	/** 재생이 끝난 세그먼트와 위치 (재생 스레드만 이용) */
+	private long checkpointSegment;
+	private long checkpointPosition;
+
+	AuditJournal(File dir, long segmentBytes, boolean force) throws IOException {
+		this(dir, segmentBytes, force, 0L);
+	}
+
+	AuditJournal(File dir, long segmentBytes, boolean force, long maxBytes) throws IOException {
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("저널 디렉토리를 만들 수 없습니다. [" + dir + "]");
+		}
+		this.dir = dir;
+		this.segmentBytes = segmentBytes;
+		this.force = force;
+		this.maxBytes = maxBytes;
+		loadCheckpoint();
+		long[] segments = segments();
+		for (long v : segments) {
+			bytes.addAndGet(file(v).length());
+		}
+		pending = 0 < segments.length;
+		segment = Math.max(pending ? segments[segments.length - 1] : 0L, checkpointSegment);
+	}
+
+	/** 재생하지 않은 감사 로그가 있을 때는 true를 반환합니다. */
+	boolean isPending() {
+		return pending;
+	}
+
+	/** 최대 크기를 넘어서 추가를 거부하고 있을 때는 true를 반환합니다. */
+	boolean isFull() {
+		return full;
+	}
+
+	/** 세그먼트 파일의 합계 크기 (byte)를 반환합니다. */
+	long bytes() {
+		return bytes.get();
+	}
+
+	/** 감사 로그를 저널 끝에 추가합니다. 최대 크기를 넘을 때는 추가하지 않고 IOException을 던집니다. */
+	synchronized void append(List<Entry> entries) throws IOException {
+		buffer.reset();
+		for (Entry entry : entries) {
+			record.reset();
+			encode(entry);
+			byte[] bytes = record.toByteArray();
+			crc.reset();
+			crc.update(bytes, 0, bytes.length);
+			bufferData.writeInt(bytes.length);
+			bufferData.writeInt((int) crc.getValue());
+			bufferData.write(bytes);
+		}
+		ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+		checkCapacity(bytes.remaining());
+		if (out != null && segmentBytes < out.size() + bytes.remaining()) {
+			closeSegment();
+		}
+		if (out == null) {
+			segment = Math.max(segment + 1, System.currentTimeMillis());
+			out = FileChannel.open(file(segment).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		}
+		while (bytes.hasRemaining()) {
+			this.bytes.addAndGet(out.write(bytes));
+		}
+		if (force) {
+			out.force(false);
+		}
+		pending = true;
+	}
+
+	private void checkCapacity(int length) throws IOException {
+		if (maxBytes <= 0) {
+			return;
+		}
+		if (maxBytes < bytes.get() + length) {
+			if (!full) {
+				full = true;
+				logger.error("저널이 최대 크기를 넘었으므로 추가를 거부합니다. [{}] [{}byte]", dir, bytes.get());
+			}
+			throw new IOException("저널이 최대 크기를 넘었습니다. [" + dir + "]");
+		}
+		if (full) {
+			full = false;
+			logger.info("저널의 추가를 재개합니다. [{}] [{}byte]", dir, bytes.get());
+		}
+	}
+
+	/**
+	 * 저널의 감사 로그를 오래된 순서로 batchSize 건씩 writer에 넘깁니다.
+	 * <p> writer는 처리한 앞쪽의 건수를 반환합니다. 배치의 일부만 처리했을 때는 그 위치까지 체크포인트를 진행하고 false를 반환합니다.
+	 * <p> 해석할 수 없는 레코드 (CRC는 정상이지만 항목이 호환되지 않는 것 등)는 다시 재생해도 기록할 수 없으므로 로그에 남기고 건너뜁니다.
+	 */
+	boolean replay(int batchSize, ToIntFunction<List<Entry>> writer) throws IOException {
+		while (pending) {
+			long[] segments;
+			synchronized (this) {
+				closeSegment();
+				segments = segments();
+				if (segments.length == 0) {
+					pending = false;
+					return true;
+				}
+			}
+			for (long target : segments) {
+				if (Thread.currentThread().isInterrupted() || !replay(target, batchSize, writer)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean replay(long target, int batchSize, ToIntFunction<List<Entry>> writer) throws IOException {
+		File file = file(target);
+		long position = target == checkpointSegment ? checkpointPosition : 0L;
+		if (target < checkpointSegment) {
+			position = Long.MAX_VALUE;
+		}
+		List<Entry> batch = new ArrayList<>(batchSize);
+		List<Long> ends = new ArrayList<>(batchSize);
+		CRC32 crc = new CRC32();
+		if (position < file.length()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				skipFully(in, position);
+				while (!Thread.currentThread().isInterrupted()) {
+					int length;
+					byte[] bytes;
+					try {
+						length = in.readInt();
+						int checksum = in.readInt();
+						if (length < 0 || file.length() - position - 8 < length) {
+							break;
+						}
+						bytes = new byte[length];
+						in.readFully(bytes);
+						crc.reset();
+						crc.update(bytes, 0, length);
+						if ((int) crc.getValue() != checksum) {
+							logger.warn("파손된 레코드 이후를 무시합니다. [{}:{}]", file, position);
+							break;
+						}
+					} catch (EOFException e) {
+						break;
+					}
+					try {
+						batch.add(decode(bytes));
+						ends.add(position + 8 + length);
+					} catch (IOException | RuntimeException e) {
+						logger.error("해석할 수 없는 레코드를 건너뜁니다. [" + file + ":" + position + "]", e);
+					}
+					position += 8 + length;
+					if (batch.size() == batchSize && !write(target, batch, ends, writer)) {
+						return false;
+					}
+				}
+			}
+			if (Thread.currentThread().isInterrupted() || (!batch.isEmpty() && !write(target, batch, ends, writer))) {
+				return false;
+			}
+		}
+		checkpoint(target, Long.MAX_VALUE);
+		long length = file.length();
+		if (!file.delete()) {
+			logger.warn("저널 파일을 삭제할 수 없습니다. [{}]", file);
+			return false;
+		}
+		bytes.addAndGet(-length);
+		return true;
+	}
+
+	/** 배치를 writer에 넘기고 처리한 레코드의 끝까지 체크포인트를 진행합니다. 모두 처리했을 때는 true. */
+	private boolean write(long target, List<Entry> batch, List<Long> ends, ToIntFunction<List<Entry>> writer)
+			throws IOException {
+		int count = writer.applyAsInt(batch);
+		if (0 < count) {
+			checkpoint(target, ends.get(count - 1));
+		}
+		if (count < batch.size()) {
+			return false;
+		}
+		batch.clear();
+		ends.clear();
+		return true;
+	}
+
+	private static void skipFully(InputStream in, long n) throws IOException {
+		while (0 < n) {
+			long skipped = in.skip(n);
+			if (skipped <= 0) {
+				throw new EOFException();
+			}
+			n -= skipped;
+		}
+	}
+
+	private long[] segments() {
+		String[] names = dir.list((d, name) -> name.endsWith(Suffix));
+		if (names == null) {
+			return new long[0];
+		}
+		long[] segments = new long[names.length];
+		for (int i = 0; i < names.length; i++) {
+			segments[i] = Long.parseLong(names[i].substring(0, names[i].length() - Suffix.length()));
+		}
+		Arrays.sort(segments);
+		return segments;
+	}
+
+	private File file(long segment) {
+		return new File(dir, String.format("%019d", segment) + Suffix);
+	}
+
+	private void loadCheckpoint() throws IOException {
+		File file = new File(dir, Checkpoint);
+		if (!file.exists()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			checkpointSegment = in.readLong();
+			checkpointPosition = in.readLong();
+		} catch (EOFException e) {
+			logger.warn("체크포인트를 읽을 수 없으므로 처음부터 재생합니다. [{}]", file);
+		}
+	}
+
+	private void checkpoint(long segment, long position) throws IOException {
+		File tmp = new File(dir, Checkpoint + ".tmp");
+		try (DataOutputStream stream = new DataOutputStream(new FileOutputStream(tmp))) {
+			stream.writeLong(segment);
+			stream.writeLong(position);
+		}
+		Files.move(tmp.toPath(), new File(dir, Checkpoint).toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		checkpointSegment = segment;
+		checkpointPosition = position;
+	}
+
+	private synchronized void closeSegment() throws IOException {
+		if (out != null) {
+			out.close();
+			out = null;
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void close() throws IOException {
+		closeSegment();
+	}
+
+	private void encode(Entry entry) throws IOException {
+		writeString(entry.getKey());
+		data.writeLong(entry.getSeq());
+		Entity audit = entry.getAudit();
+		if (audit instanceof AuditActor) {
+			AuditActor v = (AuditActor) audit;
+			data.writeByte(TypeActor);
+			data.writeLong(v.getId() != null ? v.getId() : Long.MIN_VALUE);
+			writeString(v.getActorId());
+			writeString(v.getRoleType() != null ? v.getRoleType().name() : null);
+			writeString(v.getSource());
+			writeCommon(v.getCategory(), v.getMessage(), v.getStatusType(), v.getErrorReason(), v.getTime(),
+					v.getStartDate(), v.getEndDate());
+		} else {
+			AuditEvent v = (AuditEvent) audit;
+			data.writeByte(TypeEvent);
+			data.writeLong(v.getId() != null ? v.getId() : Long.MIN_VALUE);
+			writeCommon(v.getCategory(), v.getMessage(), v.getStatusType(), v.getErrorReason(), v.getTime(),
+					v.getStartDate(), v.getEndDate());
+		}
+	}
+
+	private void writeCommon(String category, String message, ActionStatusType statusType, String errorReason,
+			Long time, LocalDateTime startDate, LocalDateTime endDate) throws IOException {
+		writeString(category);
+		writeString(message);
+		writeString(statusType != null ? statusType.name() : null);
+		writeString(errorReason);
+		data.writeLong(time != null ? time : Long.MIN_VALUE);
+		writeDate(startDate);
+		writeDate(endDate);
+	}
+
+	private void writeString(String v) throws IOException {
+		if (v == null) {
+			data.writeInt(-1);
+			return;
+		}
+		byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	private void writeDate(LocalDateTime v) throws IOException {
+		data.writeLong(v != null ? v.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+		data.writeInt(v != null ? v.getNano() : 0);
+	}
+
+	private static Entry decode(byte[] bytes) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		String key = readString(in);
+		long seq = in.readLong();
+		if (in.readByte() == TypeActor) {
+			AuditActor v = new AuditActor();
+			v.setId(readId(in));
+			v.setActorId(readString(in));
+			String roleType = readString(in);
+			v.setRoleType(roleType != null ? Actor.ActorRoleType.valueOf(roleType) : null);
+			v.setSource(readString(in));
+			v.setCategory(readString(in));
+			v.setMessage(readString(in));
+			v.setStatusType(readStatus(in));
+			v.setErrorReason(readString(in));
+			v.setTime(readTime(in));
+			v.setStartDate(readDate(in));
+			v.setEndDate(readDate(in));
+			return new Entry(key, seq, v);
+		}
+		AuditEvent v = new AuditEvent();
+		v.setId(readId(in));
+		v.setCategory(readString(in));
+		v.setMessage(readString(in));
+		v.setStatusType(readStatus(in));
+		v.setErrorReason(readString(in));
+		v.setTime(readTime(in));
+		v.setStartDate(readDate(in));
+		v.setEndDate(readDate(in));
+		return new Entry(key, seq, v);
+	}
+
+	private static Long readId(DataInputStream in) throws IOException {
+		long v = in.readLong();
+		return v != Long.MIN_VALUE ? v : null;
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static ActionStatusType readStatus(DataInputStream in) throws IOException {
+		String v = readString(in);
+		return v != null ? ActionStatusType.valueOf(v) : null;
+	}
+
+	private static Long readTime(DataInputStream in) throws IOException {
+		long v = in.readLong();
+		return v != Long.MIN_VALUE ? v : null;
+	}
+
+	private static LocalDateTime readDate(DataInputStream in) throws IOException {
+		long seconds = in.readLong();
+		int nanos = in.readInt();
+		return seconds != Long.MIN_VALUE ? LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC) : null;
+	}
+
+}
@@ -0,0 +1,202 @@
+package com.nhis.comm.context.audit;
+
+import com.nhis.comm.context.audit.AuditRollup.AuditType;
+import com.nhis.comm.context.lock.IdLockProvider;
+import com.nhis.comm.context.lock.IdLockProvider.IdLease;
+import com.nhis.comm.context.orm.SystemRepository;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sewoo on 2017. 2. 16..
+ * 감사 로그의 시간 단위 집계 (AuditRollup)와 보관 기간을 넘은 감사 로그의 삭제를 정기적으로 실행합니다.
+ * <p> 집계는 rollupLagMillis 이상 지난 시간만 대상으로 하며, 한 시간씩 다른 트랜잭션으로 실행합니다.
+ * 이미 집계한 시간도 처리 중인 감사 로그가 남아 있었거나 그 후에 감사 로그가 등록 (저널 재생 등)되었을 때는
+ * 삭제하기 전에 다시 집계합니다.
+ * <p> 삭제는 시작 시각의 범위 (하루 단위)로 실행하므로 startDate의 인덱스 또는 일 단위 파티션으로 처리됩니다.
+ * 아직 집계하지 않은 감사 로그는 보관 기간을 넘어도 삭제하지 않습니다.
+ * <p> IdLockProvider가 있을 때는 리스를 얻은 노드만 실행합니다. 리스가 만료된 후에 다른 노드와 겹쳐도
+ * 집계 / 삭제는 다시 실행해도 같은 결과가 되므로 문제는 없습니다.
+ */
+@Setter
+@ConfigurationProperties(prefix = "extension.audit.maintenance")
+public class AuditMaintenance {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+	private static final String LockId = "audit.maintenance";
+
+	@Autowired
+	private SystemRepository rep;
+	@Autowired
+	@Qualifier(SystemRepository.BeanNameTx)
+	private PlatformTransactionManager tx;
+	@Autowired(required = false)
+	private IdLockProvider lockProvider;
+
+	/** 실행 간격 (msec) */
+	private long intervalMillis = 600000L;
+	/** 감사 로그의 보관 일수 */
+	private int retentionDays = 90;
+	/** 집계 결과의 보관 일수 */
+	private int rollupRetentionDays = 730;
+	/** 종료 시간을 지나고 나서 집계할 때까지의 지연 (msec). 처리 중인 감사 로그가 종료될 때까지 기다립니다. */
+	private long rollupLagMillis = 3600000L;
+	/** 한 번의 실행으로 집계하는 최대 시간 수 */
+	private int maxHoursPerRun = 24 * 7;
+
+	private ScheduledExecutorService executor;
+
+	@PostConstruct
+	public void start() {
+		executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "audit-maintenance");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::run, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+	private void run() {
+		try {
+			Optional<IdLease> lease = lockProvider != null ? lockProvider.acquire(LockId, 0L) : Optional.empty();
+			if (lockProvider != null && !lease.isPresent()) {
+				return;
+			}
+			try {
+				maintain();
+			} finally {
+				lease.ifPresent(v -> lockProvider.release(v));
+			}
+		} catch (RuntimeException e) { // 다음 실행에 영향을주지 않도록
+			logger.error(e.getMessage(), e);
+		}
+	}
+
+	/** 집계와 삭제를 실행합니다. */
+	public void maintain() {
+		for (AuditType auditType : AuditType.values()) {
+			rollup(auditType);
+			purge(auditType);
+		}
+		purgeRollup();
+	}
+
+	/**
+	 * 다시 집계가 필요한 시간과 집계하지 않은 시간을 오래된 순서로 집계합니다.
+	 * <p> 감사 로그가 없는 시간은 건너뜁니다.
+	 * <p> 판정 위치 (AuditRollup#maxId)는 다시 집계가 모두 끝난 후에 진행하므로
+	 * 도중에 실패해도 다음 실행에서 같은 시간을 다시 집계합니다.
+	 * @return 집계한 시간 수
+	 */
+	public int rollup(AuditType auditType) {
+		LocalDateTime limit = now().minusNanos(rollupLagMillis * 1000000L);
+		Long maxId = txNew().execute(status -> AuditRollup.maxId(rep, auditType)).orElse(null);
+		Optional<LocalDateTime> last = txNew().execute(status -> AuditRollup.lastHour(rep, auditType));
+		int hours = 0;
+		if (last.isPresent()) {
+			Long lastId = txNew().execute(status -> AuditRollup.lastId(rep, auditType)).orElse(null);
+			Set<LocalDateTime> stale = txNew().execute(status ->
+					AuditRollup.staleHours(rep, auditType, lastId, retentionCutoff(), last.get().plusHours(1)));
+			for (LocalDateTime hour : stale) {
+				if (Thread.currentThread().isInterrupted()) {
+					return hours;
+				}
+				int count = txNew().execute(status -> AuditRollup.rollup(rep, auditType, hour, lastId));
+				logger.debug("감사 로그를 다시 집계했습니다. [{}] [{}] [{}건]", auditType, hour, count);
+				hours++;
+			}
+			if (maxId != null && !stale.isEmpty()) {
+				txNew().execute(status -> AuditRollup.advance(rep, auditType, last.get(), maxId));
+			}
+		}
+		LocalDateTime from = last.map(v -> v.plusHours(1)).orElse(null);
+		int rolled = 0;
+		while (rolled < maxHoursPerRun && !Thread.currentThread().isInterrupted()) {
+			final LocalDateTime next = from;
+			Optional<LocalDateTime> first = txNew().execute(status -> AuditRollup.firstDate(rep, auditType, next));
+			if (!first.isPresent()) {
+				break;
+			}
+			LocalDateTime hour = first.get().truncatedTo(ChronoUnit.HOURS);
+			if (limit.isBefore(hour.plusHours(1))) {
+				break;
+			}
+			int count = txNew().execute(status -> AuditRollup.rollup(rep, auditType, hour, maxId));
+			logger.debug("감사 로그를 집계했습니다. [{}] [{}] [{}건]", auditType, hour, count);
+			from = hour.plusHours(1);
+			rolled++;
+		}
+		return hours + rolled;
+	}
+
+	/**
+	 * 보관 기간을 넘은 감사 로그를 하루씩 삭제합니다.
+	 * @return 삭제한 건수
+	 */
+	public int purge(AuditType auditType) {
+		LocalDateTime cutoff = retentionCutoff();
+		Optional<LocalDateTime> rolled = txNew().execute(status -> AuditRollup.lastHour(rep, auditType));
+		if (!rolled.isPresent()) {
+			return 0;
+		}
+		if (rolled.get().plusHours(1).isBefore(cutoff)) {
+			cutoff = rolled.get().plusHours(1);
+		}
+		int total = 0;
+		while (!Thread.currentThread().isInterrupted()) {
+			Optional<LocalDateTime> first = txNew().execute(status -> AuditRollup.firstDate(rep, auditType, null));
+			if (!first.isPresent() || !first.get().isBefore(cutoff)) {
+				break;
+			}
+			LocalDateTime nextDay = first.get().toLocalDate().plusDays(1).atStartOfDay();
+			LocalDateTime before = nextDay.isBefore(cutoff) ? nextDay : cutoff;
+			int count = txNew().execute(status -> AuditRollup.purgeAudit(rep, auditType, before));
+			logger.info("보관 기간을 넘은 감사 로그를 삭제했습니다. [{}] [~{}] [{}건]", auditType, before, count);
+			total += count;
+		}
+		return total;
+	}
+
+	/** 보관 기간을 넘은 집계 결과를 삭제합니다. */
+	public int purgeRollup() {
+		LocalDateTime cutoff = now().toLocalDate().minusDays(rollupRetentionDays).atStartOfDay();
+		return txNew().execute(status -> AuditRollup.purge(rep, cutoff));
+	}
+
+	/** 감사 로그의 보관 기한. 이보다 앞의 시간은 삭제되었으므로 다시 집계하지 않습니다. */
+	private LocalDateTime retentionCutoff() {
+		return now().toLocalDate().minusDays(retentionDays).atStartOfDay();
+	}
+
+	private LocalDateTime now() {
+		return rep.dh().time().date();
+	}
+
+	private TransactionTemplate txNew() {
+		TransactionTemplate template = new TransactionTemplate(tx);
+		template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return template;
+	}
+
+}
@@ -0,0 +1,208 @@
+package com.nhis.comm.context.audit;
+
+import com.nhis.comm.ActionStatusType;
+import lombok.Setter;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created by sewoo on 2017. 2. 15..
+ * AuditHandler가 측정한 유스 케이스의 처리 시간을 카테고리별 히스토그램으로 집계합니다.
+ * <p> 집계 결과는 actuator의 metrics (audit.latency.[카테고리].*)로 공개됩니다. (Jolokia 경유로도 참조 가능)
+ * 건수는 기동 후의 누계, 백분위수 / 최대 / 비율은 직전 intervalMillis ~ 2배 기간의 값입니다.
+ * <p> 히스토그램은 2의 거듭 제곱마다 16분할한 고정 버킷 (오차 약 6%)이며, 기록시에 객체를 생성하지 않습니다.
+ */
+@Setter
+@ConfigurationProperties(prefix = "extension.audit.metrics")
+public class AuditMetrics implements PublicMetrics {
+	private static final int SubBuckets = 16;
+	/** 약 19시간 (usec)까지. 넘은 값은 마지막 버킷에 기록합니다. */
+	private static final int Buckets = 2 * SubBuckets + 32 * SubBuckets;
+
+	/** 백분위수를 집계하는 기간 (msec) */
+	private long intervalMillis = 60000L;
+	/** 집계하는 카테고리의 최대 수 (넘은 카테고리는 "other"로 집계합니다) */
+	private int maxCategories = 200;
+
+	private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+	/** 처리 시간을 기록합니다. */
+	public void record(String category, long elapsedNanos, ActionStatusType statusType) {
+		histogram(category).record(elapsedNanos, statusType, TimeUnit.MILLISECONDS.toNanos(intervalMillis));
+	}
+
+	private Histogram histogram(String category) {
+		Histogram histogram = histograms.get(category);
+		if (histogram != null) {
+			return histogram;
+		}
+		if (maxCategories <= histograms.size()) {
+			category = "other";
+		}
+		return histograms.computeIfAbsent(category, k -> new Histogram());
+	}
+
+	/** 집계 결과를 모두 파기합니다. */
+	public void clear() {
+		histograms.clear();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> metrics = new ArrayList<>();
+		long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+		histograms.forEach((category, histogram) -> {
+			String prefix = "audit.latency." + category + ".";
+			metrics.add(new Metric<>(prefix + "count", histogram.count.sum()));
+			metrics.add(new Metric<>(prefix + "error", histogram.errors.sum()));
+			metrics.add(new Metric<>(prefix + "cancel", histogram.cancels.sum()));
+			Window window = histogram.window(intervalNanos);
+			if (window.count == 0) {
+				return;
+			}
+			metrics.add(new Metric<>(prefix + "p50", window.percentile(0.50)));
+			metrics.add(new Metric<>(prefix + "p95", window.percentile(0.95)));
+			metrics.add(new Metric<>(prefix + "p99", window.percentile(0.99)));
+			metrics.add(new Metric<>(prefix + "max", millis(window.max)));
+			metrics.add(new Metric<>(prefix + "mean", millis(window.total / window.count)));
+			metrics.add(new Metric<>(prefix + "error-rate", (double) window.errors / window.count));
+			metrics.add(new Metric<>(prefix + "cancel-rate", (double) window.cancels / window.count));
+		});
+		return metrics;
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+
+	/** 값 (usec)에 대응하는 버킷 위치를 반환합니다. */
+	static int bucket(long micros) {
+		if (micros < 2 * SubBuckets) {
+			return (int) Math.max(micros, 0);
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(micros) - 4;
+		int index = 2 * SubBuckets + (shift - 1) * SubBuckets + (int) (micros >>> shift) - SubBuckets;
+		return Math.min(index, Buckets - 1);
+	}
+
+	/** 버킷에 포함되는 최대 값 (usec)을 반환합니다. */
+	static long bucketMax(int index) {
+		if (index < 2 * SubBuckets) {
+			return index;
+		}
+		int shift = (index - 2 * SubBuckets) / SubBuckets + 1;
+		long sub = (index - 2 * SubBuckets) % SubBuckets + SubBuckets;
+		return ((sub + 1) << shift) - 1;
+	}
+
+	/** 카테고리별 히스토그램. 기간마다 교대로 이용하는 2개의 슬롯을 가집니다. */
+	private static class Histogram {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder cancels = new LongAdder();
+		private final Slot[] slots = { new Slot(), new Slot() };
+
+		void record(long elapsedNanos, ActionStatusType statusType, long intervalNanos) {
+			long epoch = System.nanoTime() / intervalNanos;
+			Slot slot = slots[(int) (epoch & 1)];
+			if (slot.epoch != epoch) {
+				slot.reset(epoch);
+			}
+			long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+			slot.counts.incrementAndGet(bucket(micros));
+			slot.total.add(micros);
+			slot.max.accumulateAndGet(micros, Math::max);
+			count.increment();
+			if (statusType == ActionStatusType.Error) {
+				errors.increment();
+				slot.errors.increment();
+			} else if (statusType == ActionStatusType.Cancelled) {
+				cancels.increment();
+				slot.cancels.increment();
+			}
+		}
+
+		/** 현재와 직전 기간의 슬롯을 합산합니다. */
+		Window window(long intervalNanos) {
+			long epoch = System.nanoTime() / intervalNanos;
+			Window window = new Window();
+			for (Slot slot : slots) {
+				if (slot.epoch == epoch || slot.epoch == epoch - 1) {
+					window.add(slot);
+				}
+			}
+			return window;
+		}
+	}
+
+	private static class Slot {
+		private volatile long epoch = Long.MIN_VALUE;
+		private final AtomicLongArray counts = new AtomicLongArray(Buckets);
+		private final LongAdder total = new LongAdder();
+		private final AtomicLong max = new AtomicLong();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder cancels = new LongAdder();
+
+		synchronized void reset(long epoch) {
+			if (this.epoch == epoch) {
+				return;
+			}
+			for (int i = 0; i < Buckets; i++) {
+				counts.set(i, 0L);
+			}
+			total.reset();
+			max.set(0L);
+			errors.reset();
+			cancels.reset();
+			this.epoch = epoch;
+		}
+	}
+
+	/** 집계 기간의 합산 결과 */
+	private static class Window {
+		private final long[] counts = new long[Buckets];
+		private long count;
+		private long total;
+		private long max;
+		private long errors;
+		private long cancels;
+
+		void add(Slot slot) {
+			for (int i = 0; i < Buckets; i++) {
+				long v = slot.counts.get(i);
+				counts[i] += v;
+				count += v;
+			}
+			total += slot.total.sum();
+			max = Math.max(max, slot.max.get());
+			errors += slot.errors.sum();
+			cancels += slot.cancels.sum();
+		}
+
+		/** 백분위수 (msec)를 반환합니다. */
+		double percentile(double ratio) {
+			long threshold = Math.max(1L, (long) Math.ceil(count * ratio));
+			long sum = 0;
+			for (int i = 0; i < Buckets; i++) {
+				sum += counts[i];
+				if (threshold <= sum) {
+					return millis(Math.min(bucketMax(i), max));
+				}
+			}
+			return millis(max);
+		}
+	}
+
+}
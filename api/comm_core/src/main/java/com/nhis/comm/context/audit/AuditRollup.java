@@ -0,0 +1,218 @@
+package com.nhis.comm.context.audit;
+
+import com.nhis.comm.ActionStatusType;
+import com.nhis.comm.context.Dto;
+import com.nhis.comm.context.orm.OrmActiveRecord;
+import com.nhis.comm.context.orm.SystemRepository;
+import com.nhis.comm.model.constraints.CategoryEmpty;
+import com.nhis.comm.model.constraints.ISODate;
+import com.nhis.comm.util.DateUtils;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Created by sewoo on 2017. 2. 16..
+ * 감사 로그를 시간 단위로 미리 집계한 결과를 표현합니다. (시스템 스키마)
+ * <p> 행은 감사 로그 종류 / 카테고리 / 시작 시각 (시간 단위)마다 하나이며, 완료한 감사 로그만 집계합니다.
+ * 처리 중인 감사 로그는 processingCount로 보유하고, 종료된 후나 늦게 등록 (저널 재생 등)된 감사 로그가 있을 때는
+ * 그 시간을 다시 집계합니다. (AuditMaintenance 참조)
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "auditType", "category", "startHour" }),
+		indexes = @Index(columnList = "startHour"))
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class AuditRollup extends OrmActiveRecord<AuditRollup> {
+	private static final long serialVersionUID = 1l;
+
+	@Id
+	@GeneratedValue
+	private Long id;
+	/** 감사 로그 종류 */
+	@NotNull
+	@Enumerated(EnumType.STRING)
+	private AuditType auditType;
+	/** 카테고리 */
+	private String category;
+	/** 집계 대상 시작 시각 (시간 단위) */
+	@NotNull
+	private LocalDateTime startHour;
+	/** 건수 */
+	private long count;
+	/** 예외 건수 */
+	private long errorCount;
+	/** 취소 건수 */
+	private long cancelCount;
+	/** 처리 시간 합계 (msec) */
+	private long totalTime;
+	/** 최대 처리 시간 (msec) */
+	private long maxTime;
+	/** 집계시에 처리 중이었던 건수 (0보다 클 때는 다시 집계합니다) */
+	private long processingCount;
+	/** 집계를 시작한 시점의 감사 로그 최대 ID (이후에 등록된 감사 로그의 판정에 이용) */
+	private Long maxId;
+
+	/** 평균 처리 시간 (msec)을 반환합니다. */
+	public long avgTime() {
+		return 0 < count ? totalTime / count : 0L;
+	}
+
+	/** 집계가 끝난 마지막 시간을 반환합니다. */
+	public static Optional<LocalDateTime> lastHour(final SystemRepository rep, AuditType auditType) {
+		return single(rep, "select max(r.startHour) from AuditRollup r where r.auditType=?1", auditType);
+	}
+
+	/** 집계 결과에 기록된 감사 로그 최대 ID를 반환합니다. */
+	public static Optional<Long> lastId(final SystemRepository rep, AuditType auditType) {
+		return single(rep, "select max(r.maxId) from AuditRollup r where r.auditType=?1", auditType);
+	}
+
+	/** 감사 로그의 최대 ID를 반환합니다. */
+	public static Optional<Long> maxId(final SystemRepository rep, AuditType auditType) {
+		return single(rep, "select max(a.id) from " + auditType.entityName() + " a");
+	}
+
+	/** 지정 시각 이후에 시작한 가장 오래된 감사 로그의 시작 시각을 반환합니다. (from이 null일 때는 전체가 대상) */
+	public static Optional<LocalDateTime> firstDate(final SystemRepository rep, AuditType auditType, LocalDateTime from) {
+		String ql = "select min(a.startDate) from " + auditType.entityName() + " a";
+		return from != null ? single(rep, ql + " where a.startDate>=?1", from) : single(rep, ql);
+	}
+
+	private static <T> Optional<T> single(final SystemRepository rep, String ql, Object... args) {
+		List<T> list = rep.tmpl().find(ql, args);
+		return list.isEmpty() ? Optional.empty() : Optional.ofNullable(list.get(0));
+	}
+
+	/**
+	 * 다시 집계할 시간 [from, to)을 반환합니다.
+	 * <p> 집계시에 처리 중인 감사 로그가 있었던 시간과 afterId보다 뒤에 등록된 감사 로그가 있는 시간이 대상입니다.
+	 */
+	public static Set<LocalDateTime> staleHours(final SystemRepository rep, AuditType auditType, Long afterId,
+			LocalDateTime from, LocalDateTime to) {
+		Set<LocalDateTime> hours = new TreeSet<>(rep.tmpl().<LocalDateTime>find(
+				"select distinct r.startHour from AuditRollup r"
+						+ " where r.auditType=?1 and r.processingCount>0 and r.startHour>=?2 and r.startHour<?3",
+				auditType, from, to));
+		if (afterId != null) {
+			rep.tmpl().<LocalDateTime>find(
+					"select a.startDate from " + auditType.entityName() + " a"
+							+ " where a.id>?1 and a.startDate>=?2 and a.startDate<?3",
+					afterId, from, to)
+					.forEach(v -> hours.add(v.truncatedTo(ChronoUnit.HOURS)));
+		}
+		return hours;
+	}
+
+	/**
+	 * 지정 시간의 감사 로그를 집계합니다.
+	 * <p> 이미 집계된 결과는 다시 집계한 결과로 바꿉니다.
+	 * @param maxId 집계를 시작한 시점의 감사 로그 최대 ID
+	 * @return 등록한 집계 결과의 건수
+	 */
+	public static int rollup(final SystemRepository rep, AuditType auditType, LocalDateTime hour, Long maxId) {
+		LocalDateTime startHour = hour.truncatedTo(ChronoUnit.HOURS);
+		rep.tmpl().execute("delete from AuditRollup r where r.auditType=?1 and r.startHour=?2", auditType, startHour);
+		List<Object[]> rows = rep.tmpl().find(
+				"select a.category, a.statusType, count(a), sum(a.time), max(a.time) from " + auditType.entityName() + " a"
+						+ " where a.startDate>=?1 and a.startDate<?2"
+						+ " group by a.category, a.statusType",
+				startHour, startHour.plusHours(1));
+		Map<String, AuditRollup> rollups = new LinkedHashMap<>();
+		rows.forEach(row -> {
+			AuditRollup rollup = rollups.computeIfAbsent((String) row[0], category -> {
+				AuditRollup v = new AuditRollup();
+				v.setAuditType(auditType);
+				v.setCategory(category);
+				v.setStartHour(startHour);
+				v.setMaxId(maxId);
+				return v;
+			});
+			long count = ((Number) row[2]).longValue();
+			if (row[1] == ActionStatusType.Processing) {
+				rollup.setProcessingCount(rollup.getProcessingCount() + count);
+				return;
+			}
+			rollup.setCount(rollup.getCount() + count);
+			if (row[1] == ActionStatusType.Error) {
+				rollup.setErrorCount(rollup.getErrorCount() + count);
+			} else if (row[1] == ActionStatusType.Cancelled) {
+				rollup.setCancelCount(rollup.getCancelCount() + count);
+			}
+			rollup.setTotalTime(rollup.getTotalTime() + (row[3] != null ? ((Number) row[3]).longValue() : 0L));
+			rollup.setMaxTime(Math.max(rollup.getMaxTime(), row[4] != null ? ((Number) row[4]).longValue() : 0L));
+		});
+		rollups.values().forEach(v -> v.save(rep));
+		return rollups.size();
+	}
+
+	/** 다시 집계를 마친 감사 로그의 판정 위치를 maxId로 진행합니다. (지정 시간의 집계 결과에 기록) */
+	public static int advance(final SystemRepository rep, AuditType auditType, LocalDateTime hour, Long maxId) {
+		return rep.tmpl().execute("update AuditRollup r set r.maxId=?1 where r.auditType=?2 and r.startHour=?3",
+				maxId, auditType, hour);
+	}
+
+	/** 지정 시각보다 앞에 시작한 감사 로그를 삭제합니다. */
+	public static int purgeAudit(final SystemRepository rep, AuditType auditType, LocalDateTime before) {
+		return rep.tmpl().execute("delete from " + auditType.entityName() + " a where a.startDate<?1", before);
+	}
+
+	/** 지정 시각보다 앞의 집계 결과를 삭제합니다. */
+	public static int purge(final SystemRepository rep, LocalDateTime before) {
+		return rep.tmpl().execute("delete from AuditRollup r where r.startHour<?1", before);
+	}
+
+	/** 집계 결과를 검색합니다. */
+	public static List<AuditRollup> find(final SystemRepository rep, final FindAuditRollup p) {
+		return rep.tmpl().find(AuditRollup.class, (criteria) -> {
+			return criteria
+					.equal("auditType", p.auditType)
+					.equal("category", p.category)
+					.between("startHour", p.fromDay.atStartOfDay(), DateUtils.dateTo(p.toDay))
+					.sort("startHour")
+					.result();
+		});
+	}
+
+	/** 감사 로그 종류 */
+	public static enum AuditType {
+		/** 이용자 감사 로그 (AuditActor) */
+		Actor,
+		/** 이벤트 감사 로그 (AuditEvent) */
+		Event;
+
+		public String entityName() {
+			return this == Actor ? AuditActor.class.getSimpleName() : AuditEvent.class.getSimpleName();
+		}
+	}
+
+	/** 검색 매개 변수 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class FindAuditRollup implements Dto {
+		private static final long serialVersionUID = 1l;
+		@NotNull
+		private AuditType auditType = AuditType.Actor;
+		@CategoryEmpty
+		private String category;
+		@ISODate
+		private LocalDate fromDay;
+		@ISODate
+		private LocalDate toDay;
+	}
+
+}
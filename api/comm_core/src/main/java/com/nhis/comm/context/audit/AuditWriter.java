@@ -0,0 +1,546 @@
+package com.nhis.comm.context.audit;
+
+import com.nhis.comm.ActionStatusType;
+import com.nhis.comm.context.Entity;
+import com.nhis.comm.context.audit.AuditActor.RegAuditActor;
+import com.nhis.comm.context.audit.AuditEvent.RegAuditEvent;
+import com.nhis.comm.context.orm.SystemRepository;
+import lombok.Setter;
+import lombok.Value;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.sql.SQLDataException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created by sewoo on 2017. 2. 13..
+ * 감사 로그를 비동기로 시스템 스키마에 기록합니다.
+ * <p> 요청 스레드는 감사 로그를 큐에 넣을 뿐이며, 백그라운드 스레드가 batchSize 건 단위로 모아서
+ * 하나의 트랜잭션으로 등록 / 갱신합니다. 같은 배치 안에 시작과 종료가 모두 있을 때는 종료 상태로 한 번만 등록합니다.
+ * <p> 큐가 가득 찼을 때의 동작은 overflow로 지정합니다. (OverflowType 참조)
+ * <p> 시스템 스키마에 기록하지 못한 감사 로그는 로컬 저널 (AuditJournal)에 보관하고, retryMillis 동안은
+ * 시스템 스키마에 접속하지 않고 저널에 기록합니다. 저널의 감사 로그는 시스템 스키마의 복구 후에 오래된 순서로 재생됩니다.
+ * 저널은 journalMaxBytes까지 보관하고, 넘었을 때는 파기하여 audit.async.journal.full로 통지합니다.
+ * <p> 기록 키는 기동마다 다른 식별자를 포함하므로 재기동 후에 재생한 감사 로그가 새 감사 로그와 섞이지 않습니다.
+ * 시작이 이미 등록된 감사 로그는 등록된 ID를 함께 저널에 보관하여 재기동 후에도 같은 행을 갱신합니다.
+ * <p> 검증 / 제약 위반으로 배치가 거부되었을 때는 한 건씩 다시 기록하고, 단독으로도 거부된 감사 로그는
+ * 로컬 저널의 dead-letter 디렉토리에 격리 (quarantine)합니다. 하나의 잘못된 감사 로그가 다른 감사 로그의 기록을 막지 않습니다.
+ * <p> 종료시에는 큐에 남은 감사 로그를 기록한 후에 정지합니다.
+ */
+@Setter
+@ConfigurationProperties(prefix = "extension.audit.async")
+public class AuditWriter implements PublicMetrics {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private SystemRepository rep;
+	@Autowired
+	@Qualifier(SystemRepository.BeanNameTx)
+	private PlatformTransactionManager tx;
+
+	/** 큐의 최대 건수 */
+	private int queueSize = 10000;
+	/** 하나의 트랜잭션으로 기록하는 최대 건수 */
+	private int batchSize = 100;
+	/** 배치가 모이지 않았을 때 기록을 기다리는 최대 시간 (msec) */
+	private long flushMillis = 200L;
+	/** 큐가 가득 찼을 때의 동작 */
+	private OverflowType overflow = OverflowType.Block;
+	/** OverflowType#Block 시에 빈 자리를 기다리는 최대 시간 (msec). 넘었을 때는 파기합니다. */
+	private long blockMillis = 1000L;
+	/** 기록하지 못한 감사 로그를 로컬 저널에 보관할 때는 true */
+	private boolean journal = true;
+	/** 로컬 저널의 디렉토리 */
+	private String journalDir = System.getProperty("java.io.tmpdir") + File.separator + "audit-journal";
+	/** 로컬 저널의 세그먼트 파일 최대 크기 (byte) */
+	private long journalSegmentBytes = 64L * 1024 * 1024;
+	/** 로컬 저널 전체의 최대 크기 (byte). 넘었을 때는 파기합니다. (0 이하는 제한하지 않습니다) */
+	private long journalMaxBytes = 1024L * 1024 * 1024;
+	/** 로컬 저널에 추가할 때마다 디스크와 동기화할 때는 true (OS 장애시에도 손실하지 않지만 느려집니다) */
+	private boolean journalForce = false;
+	/** 기록에 실패한 후 시스템 스키마에 다시 접속할 때까지의 시간 (msec) */
+	private long retryMillis = 5000L;
+	/** 시작만 기록된 감사 로그를 추적하는 최대 건수 (넘었을 때는 오래된 것부터 추적을 포기합니다) */
+	private int maxInFlight = 100000;
+	/** 종료시에 큐에 남은 감사 로그의 기록을 기다리는 최대 시간 (msec) */
+	private long shutdownMillis = 10000L;
+
+	private BlockingQueue<Entry> queue;
+	private Thread worker;
+	private volatile boolean running;
+	/** 기동마다 다른 식별자 (기록 키의 접두사) */
+	private final String run = UUID.randomUUID().toString();
+	/** 큐에 넣은 순번 */
+	private final AtomicLong sequence = new AtomicLong();
+	/** 요청 스레드가 보유한 감사 로그와 기록 키 (시작부터 종료까지. AuditHandler는 모든 종료 경로에서 종료를 기록합니다) */
+	private final Map<Object, String> keys = Collections.synchronizedMap(new IdentityHashMap<>());
+	/** 기록 키와 등록된 ID (갱신은 기록 스레드만) */
+	private final Map<String, Long> ids = Collections.synchronizedMap(new LinkedHashMap<String, Long>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+			return maxInFlight < size();
+		}
+	});
+	/** 요청 스레드가 로컬 저널에 먼저 기록 (Spill)한 감사 로그의 기록 키와 순번. 기록 스레드가 처리 중인 배치보다 새로운 것 */
+	private final Map<String, Long> spilled = new ConcurrentHashMap<>();
+	private AuditJournal journalStore;
+	/** 기록할 수 없는 감사 로그를 격리하는 저널 (재생하지 않습니다) */
+	private AuditJournal deadLetter;
+	/** 시스템 스키마에 접속하지 않는 기한 (epoch msec) */
+	private volatile long downUntil;
+
+	private final LongAdder written = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder journaled = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder quarantined = new LongAdder();
+	private long droppedReported;
+
+	@PostConstruct
+	public void start() throws IOException {
+		queue = new ArrayBlockingQueue<>(queueSize);
+		if (journal) {
+			journalStore = new AuditJournal(new File(journalDir), journalSegmentBytes, journalForce, journalMaxBytes);
+			deadLetter = new AuditJournal(new File(journalDir, "dead-letter"), journalSegmentBytes, journalForce,
+					journalMaxBytes);
+		}
+		running = true;
+		worker = new Thread(this::run, "audit-writer");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * 큐에 남은 감사 로그를 기록한 후에 정지합니다.
+	 * <p> shutdownMillis 안에 끝나지 않았을 때는 기록을 중단하고 남은 감사 로그를 로컬 저널에 보관합니다.
+	 */
+	@PreDestroy
+	public void stop() {
+		running = false;
+		try {
+			worker.join(shutdownMillis);
+			if (worker.isAlive()) {
+				worker.interrupt();
+				worker.join(shutdownMillis);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		List<Entry> rest = new ArrayList<>();
+		queue.drainTo(rest);
+		if (journalStore != null) {
+			journal(rest);
+			try {
+				journalStore.close();
+				deadLetter.close();
+			} catch (IOException e) {
+				logger.warn(e.getMessage(), e);
+			}
+		} else if (!rest.isEmpty()) {
+			logger.warn("기록하지 못한 감사 로그가 남아 있습니다. [{}건]", rest.size());
+		}
+	}
+
+	public AuditActor start(RegAuditActor p) {
+		return started(p.create(rep.dh().actor(), rep.dh().time().date()));
+	}
+
+	public AuditActor finish(AuditActor audit) {
+		return closed(audit, ActionStatusType.Processed, null);
+	}
+
+	public AuditActor cancel(AuditActor audit, String errorReason) {
+		return closed(audit, ActionStatusType.Cancelled, errorReason);
+	}
+
+	public AuditActor error(AuditActor audit, String errorReason) {
+		return closed(audit, ActionStatusType.Error, errorReason);
+	}
+
+	public AuditEvent start(RegAuditEvent p) {
+		return started(p.create(rep.dh().time().date()));
+	}
+
+	public AuditEvent finish(AuditEvent event) {
+		return closed(event, ActionStatusType.Processed, null);
+	}
+
+	public AuditEvent cancel(AuditEvent event, String errorReason) {
+		return closed(event, ActionStatusType.Cancelled, errorReason);
+	}
+
+	public AuditEvent error(AuditEvent event, String errorReason) {
+		return closed(event, ActionStatusType.Error, errorReason);
+	}
+
+	private <T extends Entity> T started(T audit) {
+		long seq = sequence.incrementAndGet();
+		String key = run + ":" + seq;
+		keys.put(audit, key);
+		offer(new Entry(key, seq, copy(audit)));
+		return audit;
+	}
+
+	private <T extends Entity> T closed(T audit, ActionStatusType statusType, String errorReason) {
+		long seq = sequence.incrementAndGet();
+		String key = keys.remove(audit);
+		T closed = copy(audit);
+		LocalDateTime now = rep.dh().time().date();
+		if (closed instanceof AuditActor) {
+			((AuditActor) closed).close(statusType, errorReason, now);
+		} else {
+			((AuditEvent) closed).close(statusType, errorReason, now);
+		}
+		offer(new Entry(key != null ? key : run + ":" + seq, seq, closed));
+		return audit;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends Entity> T copy(T audit) {
+		T copy = (T) BeanUtils.instantiateClass(audit.getClass());
+		BeanUtils.copyProperties(audit, copy);
+		return copy;
+	}
+
+	private void offer(Entry entry) {
+		if (queue.offer(entry)) {
+			return;
+		}
+		switch (overflow) {
+		case Block:
+			try {
+				if (queue.offer(entry, blockMillis, TimeUnit.MILLISECONDS)) {
+					return;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			drop(entry);
+			break;
+		case Spill:
+			if (journalStore != null) {
+				spill(entry);
+			} else {
+				drop(entry);
+			}
+			break;
+		default:
+			drop(entry);
+		}
+	}
+
+	private void drop(Entry entry) {
+		dropped.increment();
+		logger.debug("감사 로그 큐가 가득 찼으므로 파기합니다. [{}]", entry.getAudit());
+	}
+
+	/** 파기한 건수를 정리하여 통지합니다. (기록 스레드만 이용) */
+	private void reportDropped() {
+		long count = dropped.sum();
+		if (count != droppedReported) {
+			logger.warn("감사 로그 {}건을 파기했습니다.", count - droppedReported);
+			droppedReported = count;
+		}
+	}
+
+	/**
+	 * 큐에 남은 감사 로그와 함께 로컬 저널에 기록합니다. (순서를 유지하기 위해 큐를 비웁니다)
+	 * <p> 기록 스레드가 처리 중인 배치는 이보다 오래되었으므로 기록 키를 남겨 나중에 저널에 추가하지 않도록 합니다.
+	 */
+	private void spill(Entry entry) {
+		List<Entry> entries = new ArrayList<>();
+		synchronized (journalStore) {
+			queue.drainTo(entries);
+			entries.add(entry);
+			journal(entries);
+			entries.forEach(v -> spilled.merge(v.getKey(), v.getSeq(), Math::max));
+		}
+	}
+
+	private void run() {
+		List<Entry> batch = new ArrayList<>(batchSize);
+		while ((running || !queue.isEmpty()) && !Thread.currentThread().isInterrupted()) {
+			try {
+				spilled.clear(); // 처리 중인 배치가 없으므로 순서 보정은 불필요
+				Entry first = queue.poll(flushMillis, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					batch.add(first);
+					queue.drainTo(batch, batchSize - 1);
+					persist(batch);
+					reportDropped();
+				}
+				replay();
+			} catch (InterruptedException e) {
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+		replay();
+	}
+
+	/** 감사 로그를 기록합니다. 저널에 재생하지 않은 감사 로그가 있을 때는 순서를 유지하기 위해 저널 끝에 추가합니다. */
+	private void persist(List<Entry> batch) {
+		if (journalStore != null && (journalStore.isPending() || isDown())) {
+			journalInFlight(batch);
+		} else {
+			int count = write(batch);
+			if (count < batch.size() && journalStore != null) {
+				journalInFlight(batch.subList(count, batch.size()));
+			}
+		}
+	}
+
+	/**
+	 * 처리 중인 배치를 로컬 저널에 추가합니다.
+	 * <p> 그 사이에 같은 기록 키의 새로운 감사 로그가 Spill 되었을 때는 오래된 감사 로그를 추가하지 않습니다.
+	 * (종료가 시작보다 앞에 기록되는 것을 막습니다. 종료한 감사 로그는 모든 항목을 가지므로 시작은 불필요합니다)
+	 */
+	private void journalInFlight(List<Entry> batch) {
+		synchronized (journalStore) {
+			List<Entry> entries = new ArrayList<>(batch.size());
+			for (Entry entry : batch) {
+				Long newer = spilled.get(entry.getKey());
+				if (newer == null || newer < entry.getSeq()) {
+					entries.add(entry);
+				}
+			}
+			journal(entries);
+		}
+	}
+
+	private boolean isDown() {
+		return System.currentTimeMillis() < downUntil;
+	}
+
+	/** 로컬 저널에 추가합니다. 시작이 등록된 감사 로그는 재기동 후에도 같은 행을 갱신하도록 ID를 함께 기록합니다. */
+	private void journal(List<Entry> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		entries.forEach(v -> {
+			Long id = ids.get(v.getKey());
+			if (id != null && getId(v.getAudit()) == null) {
+				setId(v.getAudit(), id);
+			}
+		});
+		try {
+			journalStore.append(entries);
+			journaled.add(entries.size());
+		} catch (IOException e) {
+			dropped.add(entries.size());
+			if (!journalStore.isFull()) { // 최대 크기 초과는 저널이 통지합니다. (파기 건수는 reportDropped)
+				logger.error("감사 로그를 로컬 저널에 기록할 수 없습니다. [" + entries.size() + "건]", e);
+			}
+		}
+	}
+
+	/** 시스템 스키마에 접속 가능할 때 로컬 저널의 감사 로그를 기록합니다. */
+	private void replay() {
+		if (journalStore == null || !journalStore.isPending() || isDown()) {
+			return;
+		}
+		try {
+			journalStore.replay(batchSize, this::write);
+		} catch (IOException e) {
+			logger.error("로컬 저널을 재생할 수 없습니다. [" + journalDir + "]", e);
+		}
+	}
+
+	/**
+	 * 감사 로그를 기록하고 처리한 (기록 또는 격리) 앞쪽의 건수를 반환합니다.
+	 * <p> 배치는 하나의 트랜잭션으로 기록하고, 검증 / 제약 위반으로 거부되었을 때는 한 건씩 다시 기록합니다.
+	 * 단독으로도 거부된 감사 로그는 격리하고 다음으로 진행합니다.
+	 * <p> 접속 장애 등 그 외의 오류일 때는 그 위치에서 중단합니다. (저널 이용시는 retryMillis 동안 시스템 스키마에 접속하지 않습니다)
+	 */
+	private int write(List<Entry> batch) {
+		try {
+			writeTx(batch);
+			return batch.size();
+		} catch (RuntimeException e) { // 시스템 스키마의 장애는 본질적인 오류에 영향을주지 않도록
+			if (!isRejected(e)) {
+				failed(batch.size(), e);
+				return 0;
+			}
+			logger.warn("감사 로그의 배치가 거부되었으므로 한 건씩 기록합니다. [{}건] {}", batch.size(), e.getMessage());
+		}
+		for (int i = 0; i < batch.size(); i++) {
+			try {
+				writeTx(Collections.singletonList(batch.get(i)));
+			} catch (RuntimeException e) {
+				if (!isRejected(e)) {
+					failed(batch.size() - i, e);
+					return i;
+				}
+				quarantine(batch.get(i), e);
+			}
+		}
+		return batch.size();
+	}
+
+	/**
+	 * 감사 로그를 하나의 트랜잭션으로 기록합니다. 같은 키의 감사 로그는 최신 상태만 기록합니다.
+	 * <p> 등록된 ID는 이 프로세스에서 기록한 것을 우선하고, 없을 때는 저널에 함께 보관한 ID를 이용합니다.
+	 */
+	private void writeTx(List<Entry> batch) {
+		Map<String, Entity> latest = new LinkedHashMap<>();
+		batch.forEach(v -> latest.put(v.getKey(), v.getAudit()));
+		List<Entity> inserts = new ArrayList<>();
+		List<Entity> updates = new ArrayList<>();
+		latest.forEach((key, audit) -> {
+			Long id = Optional.ofNullable(ids.get(key)).orElseGet(() -> getId(audit));
+			if (id == null) {
+				inserts.add(audit);
+			} else {
+				setId(audit, id);
+				updates.add(audit);
+			}
+		});
+		try {
+			txNew().execute(status -> {
+				rep.saveAll(inserts, batchSize);
+				Session session = rep.em().unwrap(Session.class);
+				updates.forEach(session::update);
+				rep.flushAndClear();
+				return null;
+			});
+		} catch (RuntimeException e) {
+			inserts.forEach(v -> setId(v, null));
+			throw e;
+		}
+		latest.forEach((key, audit) -> {
+			if (isProcessing(audit)) {
+				ids.put(key, getId(audit));
+			} else {
+				ids.remove(key);
+			}
+		});
+		written.add(latest.size());
+	}
+
+	private void failed(int count, RuntimeException e) {
+		failed.add(count);
+		logger.error("감사 로그를 기록할 수 없습니다. [" + count + "건]", e);
+		if (journalStore != null) {
+			downUntil = System.currentTimeMillis() + retryMillis;
+		}
+	}
+
+	/** 검증 / 제약 위반 등 다시 실행해도 거부되는 오류일 때 true. 그 외의 오류 (접속 장애 등)는 재시도합니다. */
+	private boolean isRejected(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof javax.validation.ConstraintViolationException
+					|| cause instanceof DataIntegrityViolationException
+					|| cause instanceof org.hibernate.exception.ConstraintViolationException
+					|| cause instanceof org.hibernate.exception.DataException
+					|| cause instanceof SQLIntegrityConstraintViolationException
+					|| cause instanceof SQLDataException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** 단독으로도 거부된 감사 로그를 격리합니다. (저널 이용시는 dead-letter 디렉토리에 보관합니다) */
+	private void quarantine(Entry entry, RuntimeException e) {
+		quarantined.increment();
+		logger.error("기록할 수 없는 감사 로그를 격리합니다. [" + entry.getAudit() + "]", e);
+		if (!isProcessing(entry.getAudit())) {
+			ids.remove(entry.getKey());
+		}
+		if (deadLetter == null) {
+			return;
+		}
+		try {
+			deadLetter.append(Collections.singletonList(entry));
+		} catch (IOException ex) {
+			logger.error("격리한 감사 로그를 보관할 수 없습니다. [" + entry.getAudit() + "]", ex);
+		}
+	}
+
+	private static boolean isProcessing(Entity audit) {
+		return (audit instanceof AuditActor ? ((AuditActor) audit).getStatusType()
+				: ((AuditEvent) audit).getStatusType()) == ActionStatusType.Processing;
+	}
+
+	private static Long getId(Entity audit) {
+		return audit instanceof AuditActor ? ((AuditActor) audit).getId() : ((AuditEvent) audit).getId();
+	}
+
+	private static void setId(Entity audit, Long id) {
+		if (audit instanceof AuditActor) {
+			((AuditActor) audit).setId(id);
+		} else {
+			((AuditEvent) audit).setId(id);
+		}
+	}
+
+	private TransactionTemplate txNew() {
+		TransactionTemplate template = new TransactionTemplate(tx);
+		template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return template;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Collection<Metric<?>> metrics() {
+		return Arrays.asList(
+				new Metric<>("audit.async.queue", queue.size()),
+				new Metric<>("audit.async.inflight", keys.size()),
+				new Metric<>("audit.async.written", written.sum()),
+				new Metric<>("audit.async.dropped", dropped.sum()),
+				new Metric<>("audit.async.journaled", journaled.sum()),
+				new Metric<>("audit.async.failed", failed.sum()),
+				new Metric<>("audit.async.quarantined", quarantined.sum()),
+				new Metric<>("audit.async.journal.pending", journalStore != null && journalStore.isPending() ? 1 : 0),
+				new Metric<>("audit.async.journal.bytes", journalStore != null ? journalStore.bytes() : 0L),
+				new Metric<>("audit.async.journal.full", journalStore != null && journalStore.isFull() ? 1 : 0),
+				new Metric<>("audit.async.down", isDown() ? 1 : 0));
+	}
+
+	/** 큐가 가득 찼을 때의 동작을 표현합니다. */
+	public static enum OverflowType {
+		/** blockMillis 동안 빈 자리를 기다리고, 넘었을 때는 파기합니다. */
+		Block,
+		/** 바로 파기합니다. */
+		Drop,
+		/** 큐의 감사 로그와 함께 로컬 저널에 기록합니다. (journal 무효시는 Drop) */
+		Spill
+	}
+
+	/** 큐에 넣는 감사 로그의 상태를 표현합니다. */
+	@Value
+	static class Entry {
+		/** 같은 감사 로그의 시작과 종료를 연결하는 키 (기동 식별자:시작 순번) */
+		String key;
+		/** 큐에 넣은 순번 (같은 키에서는 종료가 시작보다 큽니다) */
+		long seq;
+		Entity audit;
+	}
+
+}
@@ -1,11 +1,20 @@
 package com.nhis.comm.context.lock;
 
 import com.nhis.comm.InvocationException;
+import com.nhis.comm.ValidationException;
+import com.nhis.comm.ValidationException.ErrorKeys;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
 
@@ -15,10 +24,24 @@ import java.util.function.Supplier;
  * ID 단위의 잠금을 표현합니다.
  * low : 여기에서는 간단하게 계좌 단위의 ID 잠금만을 대상으로합니다.
  * low : 일반적으로 DB의 테이블 잠금에 "for update"요청 비관적 잠금을 취하거나 합니다만, 샘플이므로 메모리 잠금하고 있습니다.
- *
+ * <p> 잠금 테이블은 ConcurrentHashMap의 키 단위 원자 갱신으로 관리하며 전역 모니터를 취하지 않습니다.
+ * 각 잠금은 참조 카운트를 가지고 마지막 이용자가 해제한 시점에 테이블에서 제거되므로
+ * 접근한 ID 수에 비례하여 메모리가 늘어나지 않습니다.
+ * <p> 혼잡한 ID에서 요청 스레드가 쌓이는 것을 피하고 싶을 때는 tryCall로 대기 시간을 제한하십시오.
+ * <p> IdLockProvider가 등록되어 있을 때는 쓰기 잠금에 한해 노드를 넘는 리스도 함께 가져옵니다.
  */
+@Setter
 public class IdLockHandler {
-	private Map<Serializable, ReentrantReadWriteLock> lockMap = new HashMap<>();
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final ConcurrentMap<Serializable, IdLock> lockMap = new ConcurrentHashMap<>();
+
+	/** 노드를 넘는 잠금 제공자 (미등록시는 노드 내 잠금만) */
+	@Autowired(required = false)
+	private IdLockProvider provider;
+
+	/** 잠금 대기 시간 (msec)이 이 값을 넘었을 때 경고 로그를 출력합니다. (0 이하는 출력하지 않음) */
+	private long waitWarnMillis = 1000L;
 
 	/** ID 록에서 작업을 수행합니다. */
 	public void call(Serializable id, LockType lockType, final Runnable command) {
@@ -34,6 +57,29 @@ public class IdLockHandler {
 		} else {
 			readLock(id);
 		}
+		return callInLock(id, callable);
+	}
+
+	/**
+	 * ID 록에서 작업을 수행합니다.
+	 * <p> timeoutMillis 안에 잠금을 얻지 못했을 때는 ValidationException (error.lockTimeout)을 던집니다.
+	 * timeoutMillis에 0 이하를 지정했을 때는 대기하지 않고 즉시 판정합니다.
+	 */
+	public void tryCall(Serializable id, LockType lockType, long timeoutMillis, final Runnable command) {
+		tryCall(id, lockType, timeoutMillis, () -> {
+			command.run();
+			return true;
+		});
+	}
+
+	public <T> T tryCall(Serializable id, LockType lockType, long timeoutMillis, final Supplier<T> callable) {
+		if (!tryLock(id, lockType, timeoutMillis)) {
+			throw new ValidationException(ErrorKeys.LockTimeout);
+		}
+		return callInLock(id, callable);
+	}
+
+	private <T> T callInLock(Serializable id, final Supplier<T> callable) {
 		try {
 			return callable.get();
 		} catch (RuntimeException e) {
@@ -46,41 +92,177 @@ public class IdLockHandler {
 	}
 
 	private void writeLock(final Serializable id) {
-		Optional.of(id).ifPresent((v) -> {
-			synchronized (lockMap) {
-				idLock(v).writeLock().lock();
-			}
-		});
+		Optional.of(id).ifPresent((v) -> lock(v, LockType.Write));
 	}
 
-	private ReentrantReadWriteLock idLock(final Serializable id) {
-		if (!lockMap.containsKey(id)) {
-			lockMap.put(id, new ReentrantReadWriteLock());
+	public void readLock(final Serializable id) {
+		Optional.of(id).ifPresent((v) -> lock(v, LockType.Read));
+	}
+
+	private void lock(final Serializable id, LockType lockType) {
+		IdLock idLock = retain(id);
+		long start = System.nanoTime();
+		Lock lock = idLock.lock(lockType);
+		try {
+			lock.lock();
+		} catch (RuntimeException e) {
+			release(id);
+			throw e;
+		}
+		if (!acquireLease(id, idLock, lockType, -1L)) {
+			lock.unlock();
+			release(id);
+			throw new IllegalStateException("리스를 가져오지 못했습니다. [" + id + "]");
 		}
-		return lockMap.get(id);
+		reportWait(id, lockType, start);
 	}
 
-	public void readLock(final Serializable id) {
-		Optional.of(id).ifPresent((v) -> {
-			synchronized (lockMap) {
-				idLock(v).readLock().lock();
+	/**
+	 * 제한 시간 부착으로 잠금을 가져옵니다.
+	 * <p> 얻었을 때는 true. 반드시 unlock으로 해제하십시오.
+	 */
+	public boolean tryLock(final Serializable id, LockType lockType, long timeoutMillis) {
+		IdLock idLock = retain(Optional.of(id).get());
+		long start = System.nanoTime();
+		boolean locked = false;
+		Lock lock = idLock.lock(lockType);
+		try {
+			locked = timeoutMillis <= 0 ? lock.tryLock() : lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+			if (locked) {
+				long remain = timeoutMillis <= 0 ? 0L
+						: Math.max(0L, timeoutMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				if (!acquireLease(id, idLock, lockType, remain)) {
+					lock.unlock();
+					locked = false;
+				}
 			}
-		});
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			if (!locked) {
+				release(id);
+			}
+		}
+		reportWait(id, lockType, start);
+		return locked;
+	}
+
+	/** 쓰기 잠금을 처음 얻었을 때 노드를 넘는 리스를 가져옵니다. (재진입시와 읽기 잠금시는 불필요) */
+	private boolean acquireLease(final Serializable id, IdLock idLock, LockType lockType, long timeoutMillis) {
+		if (provider == null || lockType.isRead() || 1 < idLock.getWriteHoldCount()) {
+			return true;
+		}
+		try {
+			idLock.lease = provider.acquire(id, timeoutMillis).orElse(null);
+		} catch (RuntimeException e) {
+			logger.error(e.getMessage(), e);
+			idLock.lease = null;
+		}
+		return idLock.lease != null;
+	}
+
+	/**
+	 * 현재 스레드가 쓰기 잠금과 함께 보유하고 있는 리스의 펜싱 토큰을 반환합니다.
+	 * <p> IdLockProvider 미등록시나 쓰기 잠금을 보유하지 않을 때는 empty.
+	 */
+	public Optional<Long> fencingToken(final Serializable id) {
+		IdLock idLock = lockMap.get(id);
+		if (idLock == null || !idLock.isWriteLockedByCurrentThread() || idLock.lease == null) {
+			return Optional.empty();
+		}
+		return Optional.of(idLock.lease.getToken());
+	}
+
+	private void reportWait(final Serializable id, LockType lockType, long startNanos) {
+		if (waitWarnMillis <= 0) {
+			return;
+		}
+		long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+		if (waitWarnMillis <= waitMillis) {
+			logger.warn("ID 잠금 대기가 길어지고 있습니다. [{}] [{}] [{}ms]", id, lockType, waitMillis);
+		}
+	}
+
+	/** 잠금을 참조 카운트 부착으로 가져옵니다. (미등록시나 제거 중일 때는 생성) */
+	private IdLock retain(final Serializable id) {
+		IdLock idLock = lockMap.get(id);
+		if (idLock != null && idLock.retain()) {
+			return idLock;
+		}
+		return lockMap.compute(id, (k, v) -> v != null && v.retain() ? v : new IdLock());
+	}
+
+	/** 참조 카운트를 줄이고 이용자가 없어진 잠금은 테이블에서 제거합니다. */
+	private void release(final Serializable id) {
+		IdLock idLock = lockMap.get(id);
+		if (idLock != null && idLock.release()) {
+			lockMap.remove(id, idLock);
+		}
 	}
 
 	public void unlock(final Serializable id) {
 		Optional.of(id).ifPresent((v) -> {
-			synchronized (lockMap) {
-				ReentrantReadWriteLock idLock = idLock(v);
-				if (idLock.isWriteLockedByCurrentThread()) {
+			IdLock idLock = lockMap.get(v);
+			if (idLock == null) {
+				throw new IllegalMonitorStateException("잠금을 보유하고 있지 않은 ID 입니다. [" + v + "]");
+			}
+			if (idLock.isWriteLockedByCurrentThread()) {
+				try {
+					if (idLock.getWriteHoldCount() == 1 && idLock.lease != null) {
+						IdLockProvider.IdLease lease = idLock.lease;
+						idLock.lease = null;
+						provider.release(lease);
+					}
+				} finally {
 					idLock.writeLock().unlock();
-				} else {
-					idLock.readLock().unlock();
+					release(v);
 				}
+			} else {
+				// 보유하지 않은 잠금의 해제는 IllegalMonitorStateException. 다른 스레드가 보유 중일 수 있으므로 참조 카운트는 줄이지 않습니다.
+				idLock.readLock().unlock();
+				release(v);
 			}
 		});
 	}
 
+	/** 현재 잠금 테이블에 보유중인 ID 수를 반환합니다. */
+	public int size() {
+		return lockMap.size();
+	}
+
+	/**
+	 * 참조 카운트 부착 ID 잠금.
+	 * <p> 참조 카운트가 0이 된 잠금은 제거 중으로 간주하여 다시 가져올 수 없습니다. (다음 이용자는 새로 생성합니다)
+	 */
+	private static class IdLock extends ReentrantReadWriteLock {
+		private static final long serialVersionUID = 1L;
+		private final AtomicInteger refs = new AtomicInteger(1);
+		/** 쓰기 잠금 보유중인 노드를 넘는 리스 (쓰기 잠금 보유자만 갱신) */
+		private IdLockProvider.IdLease lease;
+
+		Lock lock(LockType lockType) {
+			return lockType.isWrite() ? writeLock() : readLock();
+		}
+
+		/** 참조 카운트를 늘립니다. 제거 중일 때는 false */
+		boolean retain() {
+			while (true) {
+				int current = refs.get();
+				if (current <= 0) {
+					return false;
+				}
+				if (refs.compareAndSet(current, current + 1)) {
+					return true;
+				}
+			}
+		}
+
+		/** 참조가 없어졌을 때는 true */
+		boolean release() {
+			return refs.decrementAndGet() == 0;
+		}
+	}
+
 	/**
 	 * 잠금 유형을 표현하는 Enum.
 	 */
@@ -0,0 +1,80 @@
+package com.nhis.comm.context.lock;
+
+import com.nhis.comm.context.orm.OrmActiveRecord;
+import com.nhis.comm.context.orm.OrmRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Created by sewoo on 2017. 2. 6..
+ *
+ * 노드를 넘는 ID 잠금의 리스 정보를 표현합니다. (시스템 스키마)
+ * <p> 행은 ID 마다 하나이며 리스를 얻을 때마다 token (펜싱 토큰)이 증가합니다.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class IdLockLease extends OrmActiveRecord<IdLockLease> {
+	private static final long serialVersionUID = 1l;
+
+	/** 잠금 대상 ID */
+	@Id
+	@Size(max = 120)
+	private String id;
+	/** 리스를 보유한 노드 (해제시는 null) */
+	@Size(max = 120)
+	private String owner;
+	/** 펜싱 토큰 */
+	private long token;
+	/** 리스 만료 일시 */
+	@NotNull
+	private LocalDateTime expireDate;
+
+	/**
+	 * 리스를 가져옵니다.
+	 * <p> 미보유 또는 만료된 리스만 가져올 수 있습니다. 얻지 못했을 때는 empty.
+	 * <p> 행이 없을 때는 신규 등록합니다. 동시 등록으로 키가 중복되었을 때는 예외가 발생하므로 재시도하십시오.
+	 */
+	public static Optional<IdLockLease> acquire(final OrmRepository rep, String id, String owner,
+			LocalDateTime now, LocalDateTime expireDate) {
+		int updated = rep.tmpl().execute(
+				"update IdLockLease l set l.owner=?1, l.token=l.token+1, l.expireDate=?2"
+						+ " where l.id=?3 and (l.owner is null or l.owner=?1 or l.expireDate<?4)",
+				owner, expireDate, id, now);
+		if (0 < updated) {
+			return rep.get(IdLockLease.class, id);
+		}
+		if (rep.exists(IdLockLease.class, id)) {
+			return Optional.empty();
+		}
+		IdLockLease lease = new IdLockLease(id, owner, 1L, expireDate).save(rep);
+		rep.flush();
+		return Optional.of(lease);
+	}
+
+	/** 리스의 만료 일시를 연장합니다. 자신이 보유한 같은 토큰의 리스일 때만 연장됩니다. */
+	public static boolean renew(final OrmRepository rep, String id, String owner, long token, LocalDateTime expireDate) {
+		return 0 < rep.tmpl().execute(
+				"update IdLockLease l set l.expireDate=?1 where l.id=?2 and l.owner=?3 and l.token=?4",
+				expireDate, id, owner, token);
+	}
+
+	/** 리스를 해제합니다. 자신이 보유한 같은 토큰의 리스일 때만 해제됩니다. */
+	public static boolean release(final OrmRepository rep, String id, String owner, long token) {
+		return 0 < rep.tmpl().execute(
+				"update IdLockLease l set l.owner=null where l.id=?1 and l.owner=?2 and l.token=?3",
+				id, owner, token);
+	}
+
+}
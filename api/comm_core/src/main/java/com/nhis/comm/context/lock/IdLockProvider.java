@@ -0,0 +1,46 @@
+package com.nhis.comm.context.lock;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Created by sewoo on 2017. 2. 6..
+ *
+ * 노드를 넘는 ID 잠금 (리스)을 제공하는 SPI 입니다.
+ * <p> IdLockHandler는 노드 내 잠금을 얻은 뒤 쓰기 잠금에 한해 본 SPI로 클러스터 범위의 리스를 가져옵니다.
+ * 읽기 잠금은 노드 내 잠금만 취하므로 요청마다 원격 호출이 발생하지 않습니다.
+ */
+public interface IdLockProvider {
+
+	/**
+	 * 클러스터 범위의 리스를 가져옵니다.
+	 * @param id 잠금 대상 ID
+	 * @param timeoutMillis 대기 시간 (msec). 0은 대기하지 않음, 음수는 무제한 대기
+	 * @return 얻은 리스. 제한 시간 안에 얻지 못했을 때는 empty
+	 */
+	Optional<IdLease> acquire(Serializable id, long timeoutMillis);
+
+	/**
+	 * 리스를 해제합니다.
+	 * <p> 이미 만료되어 다른 노드가 가져간 리스는 무시됩니다.
+	 */
+	void release(IdLease lease);
+
+	/** 얻은 리스를 표현합니다. */
+	@Value
+	public static class IdLease implements Serializable {
+		private static final long serialVersionUID = 1L;
+		/** 잠금 대상 ID */
+		private String id;
+		/** 리스를 보유한 노드 */
+		private String owner;
+		/** 펜싱 토큰 (리스를 얻을 때마다 단조 증가) */
+		private long token;
+		/** 리스 만료 일시 (취득 시점. 보유 중에는 제공자가 연장합니다) */
+		private LocalDateTime expireDate;
+	}
+
+}
@@ -0,0 +1,184 @@
+package com.nhis.comm.context.lock;
+
+import com.nhis.comm.context.orm.SystemRepository;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityExistsException;
+import java.io.Serializable;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sewoo on 2017. 2. 6..
+ *
+ * 시스템 스키마의 리스 테이블 (IdLockLease)을 이용한 IdLockProvider 구현입니다.
+ * <p> 리스는 leaseMillis 경과 후 만료되므로 노드가 정지해도 잠금이 남지 않습니다.
+ * 보유 중인 리스는 renewMillis 간격으로 연장하므로 leaseMillis를 넘는 처리도 리스를 잃지 않습니다.
+ * DB 장애 등으로 연장하지 못해 잃은 리스는 해제시에 에러 로그를 출력합니다.
+ * 만료 후에 처리를 계속할 가능성이 있는 갱신은 IdLockHandler#fencingToken을 함께 기록하여
+ * 오래된 토큰의 갱신을 거부하도록 하십시오.
+ * <p> 리스의 취득 / 해제는 업무 트랜잭션과 분리하기 위해 매번 다른 TX (REQUIRES_NEW)로 커밋합니다.
+ */
+@Setter
+@ConfigurationProperties(prefix = "extension.idlock.lease")
+public class LeaseIdLockProvider implements IdLockProvider {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private SystemRepository rep;
+	@Autowired
+	@Qualifier(SystemRepository.BeanNameTx)
+	private PlatformTransactionManager tx;
+
+	/** 리스 유효 기간 (msec) */
+	private long leaseMillis = 30000L;
+	/** 리스를 얻지 못했을 때의 재시도 간격 (msec) */
+	private long pollMillis = 100L;
+	/** 보유 중인 리스의 연장 간격 (msec). leaseMillis보다 충분히 짧게 설정하십시오. (0 이하는 연장하지 않음) */
+	private long renewMillis = 10000L;
+	/** 리스 보유자로서의 노드 식별자 (미설정시는 기동마다 자동 생성) */
+	private String owner = UUID.randomUUID().toString();
+
+	private ScheduledExecutorService executor;
+	/** 보유 중인 리스 (값은 연장에 실패하여 잃었을 때 false) */
+	private final ConcurrentMap<IdLease, Boolean> held = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void start() {
+		if (renewMillis <= 0) {
+			return;
+		}
+		executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "idlock-lease-renewer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::renew, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (executor == null) {
+			return;
+		}
+		executor.shutdownNow();
+		try {
+			executor.awaitTermination(renewMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Optional<IdLease> acquire(Serializable id, long timeoutMillis) {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (true) {
+			Optional<IdLease> lease = tryAcquire(id.toString());
+			if (lease.isPresent()) {
+				held.put(lease.get(), true);
+				return lease;
+			}
+			long remain = deadline - System.currentTimeMillis();
+			if (0 <= timeoutMillis && remain <= 0) {
+				return Optional.empty();
+			}
+			try {
+				Thread.sleep(timeoutMillis < 0 ? pollMillis : Math.min(pollMillis, remain));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return Optional.empty();
+			}
+		}
+	}
+
+	private Optional<IdLease> tryAcquire(String id) {
+		try {
+			return txNew().execute(status -> {
+				LocalDateTime now = rep.dh().time().date();
+				return IdLockLease.acquire(rep, id, owner, now, now.plusNanos(leaseMillis * 1000000L))
+						.map(v -> new IdLease(v.getId(), v.getOwner(), v.getToken(), v.getExpireDate()));
+			});
+		} catch (RuntimeException e) {
+			if (!isDuplicate(e)) {
+				throw e;
+			}
+			// 다른 노드와 동시에 신규 등록했을 때. 다음 재시도에서 갱신으로 판정합니다.
+			logger.debug("리스 취득을 재시도 합니다. [{}] {}", id, e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	/** 키 중복 (동시 신규 등록)에 의한 예외일 때 true. 그 외의 예외 (DB 장애 등)는 재시도하지 않습니다. */
+	private boolean isDuplicate(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof DataIntegrityViolationException
+					|| cause instanceof EntityExistsException
+					|| cause instanceof org.hibernate.exception.ConstraintViolationException
+					|| cause instanceof SQLIntegrityConstraintViolationException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** 보유 중인 리스의 만료 일시를 연장합니다. */
+	public void renew() {
+		LocalDateTime expireDate = rep.dh().time().date().plusNanos(leaseMillis * 1000000L);
+		held.forEach((lease, valid) -> {
+			if (!valid) {
+				return;
+			}
+			try {
+				boolean renewed = txNew().execute(status ->
+						IdLockLease.renew(rep, lease.getId(), owner, lease.getToken(), expireDate));
+				if (!renewed && held.replace(lease, true, false)) {
+					logger.error("리스를 잃었습니다. 다른 노드가 같은 ID를 잠글 수 있습니다. [{}] [token: {}]",
+							lease.getId(), lease.getToken());
+				}
+			} catch (RuntimeException e) { // 다음 연장에 영향을주지 않도록
+				logger.warn("리스를 연장할 수 없습니다. [{}] [{}]", lease.getId(), e.getMessage());
+			}
+		});
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void release(IdLease lease) {
+		Boolean valid = held.remove(lease);
+		try {
+			boolean released = txNew().execute(status -> IdLockLease.release(rep, lease.getId(), owner, lease.getToken()));
+			if (!released || Boolean.FALSE.equals(valid)) {
+				logger.error("리스를 보유 중에 잃었습니다. 잠금 중의 처리가 다른 노드와 겹쳤을 가능성이 있습니다. [{}] [token: {}]",
+						lease.getId(), lease.getToken());
+			}
+		} catch (RuntimeException e) { // 해제하지 못한 리스는 만료로 회수되므로 본 처리에 영향을주지 않도록
+			logger.error(e.getMessage(), e);
+		}
+	}
+
+	private TransactionTemplate txNew() {
+		TransactionTemplate template = new TransactionTemplate(tx);
+		template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return template;
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.nhis.comm.context.orm;
+
+import com.nhis.comm.ValidationException;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Created by sewoo on 2017. 2. 8..
+ * keyset 페이징의 계속 토큰 (정렬 키 값의 나열)을 변환합니다.
+ * <p> 토큰은 클라이언트에게 불투명한 문자열 (URL safe Base64)로 취급됩니다.
+ * <p> 정렬 키에는 문자열 / 숫자 / 날짜 / Enum / boolean 이외를 이용하지 마십시오. (null 불가)
+ */
+public abstract class KeysetToken {
+
+	private static final String Separator = "&";
+
+	/** 정렬 키 값을 토큰으로 변환합니다. */
+	public static String encode(Object[] keys) {
+		StringBuilder sb = new StringBuilder();
+		for (Object key : keys) {
+			if (key == null) {
+				throw new IllegalArgumentException("keyset 페이징의 정렬 키에 null은 이용할 수 없습니다.");
+			}
+			if (0 < sb.length()) {
+				sb.append(Separator);
+			}
+			sb.append(encodeValue(format(key)));
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String format(Object key) {
+		if (key instanceof Enum) {
+			return ((Enum<?>) key).name();
+		} else if (key instanceof Date) {
+			return String.valueOf(((Date) key).getTime());
+		}
+		return key.toString();
+	}
+
+	/**
+	 * 토큰을 정렬 키 값으로 되돌립니다.
+	 * <p> 변환할 수 없는 토큰은 ValidationException (error.Pagination.cursor)을 던집니다.
+	 */
+	public static Object[] decode(String token, Class<?>[] types) {
+		try {
+			String[] values = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(Separator, -1);
+			if (values.length != types.length) {
+				throw new IllegalArgumentException("token size");
+			}
+			Object[] keys = new Object[types.length];
+			for (int i = 0; i < types.length; i++) {
+				keys[i] = parse(decodeValue(values[i]), types[i]);
+			}
+			return keys;
+		} catch (RuntimeException e) {
+			throw new ValidationException("cursor", "error.Pagination.cursor");
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object parse(String value, Class<?> type) {
+		if (type == String.class) {
+			return value;
+		} else if (type == Long.class || type == long.class) {
+			return Long.valueOf(value);
+		} else if (type == Integer.class || type == int.class) {
+			return Integer.valueOf(value);
+		} else if (type == BigDecimal.class) {
+			return new BigDecimal(value);
+		} else if (type == LocalDate.class) {
+			return LocalDate.parse(value);
+		} else if (type == LocalDateTime.class) {
+			return LocalDateTime.parse(value);
+		} else if (type == Date.class) {
+			return new Date(Long.parseLong(value));
+		} else if (type == Boolean.class || type == boolean.class) {
+			return Boolean.valueOf(value);
+		} else if (type.isEnum()) {
+			return Enum.valueOf((Class<Enum>) type, value);
+		}
+		throw new IllegalArgumentException("지원하지 않는 정렬 키 형식입니다. [" + type + "]");
+	}
+
+	private static String encodeValue(String value) {
+		try {
+			return URLEncoder.encode(value, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String decodeValue(String value) {
+		try {
+			return URLDecoder.decode(value, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.nhis.comm.context.orm;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by sewoo on 2017. 2. 10..
+ * ORM 2차 캐시의 통계를 actuator의 metrics (orm.cache.[유닛].*)로 공개합니다.
+ * <p> OrmRepositoryProperties#secondLevelCache 및 cacheStatistics 유효시만 값이 출력됩니다.
+ */
+public class OrmCacheMetrics implements PublicMetrics {
+
+	/** 유닛 이름 (metrics 이름의 일부)과 EntityManagerFactory */
+	private final Map<String, EntityManagerFactory> factories;
+
+	public OrmCacheMetrics(Map<String, EntityManagerFactory> factories) {
+		this.factories = factories;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> metrics = new ArrayList<>();
+		factories.forEach((unit, emf) -> {
+			SessionFactory sf = emf.unwrap(SessionFactory.class);
+			Statistics stats = sf.getStatistics();
+			if (!stats.isStatisticsEnabled() || !sf.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+				return;
+			}
+			String prefix = "orm.cache." + unit + ".";
+			metrics.add(new Metric<>(prefix + "hit", stats.getSecondLevelCacheHitCount()));
+			metrics.add(new Metric<>(prefix + "miss", stats.getSecondLevelCacheMissCount()));
+			metrics.add(new Metric<>(prefix + "put", stats.getSecondLevelCachePutCount()));
+			metrics.add(new Metric<>(prefix + "query.hit", stats.getQueryCacheHitCount()));
+			metrics.add(new Metric<>(prefix + "query.miss", stats.getQueryCacheMissCount()));
+			metrics.add(new Metric<>(prefix + "query.put", stats.getQueryCachePutCount()));
+			String regionPrefix = sf.getSessionFactoryOptions().getCacheRegionPrefix();
+			for (String region : stats.getSecondLevelCacheRegionNames()) {
+				SecondLevelCacheStatistics regionStats = stats.getSecondLevelCacheStatistics(region);
+				if (regionStats == null) {
+					continue;
+				}
+				String name = prefix + "region." + (regionPrefix != null && region.startsWith(regionPrefix + ".")
+						? region.substring(regionPrefix.length() + 1) : region) + ".";
+				metrics.add(new Metric<>(name + "hit", regionStats.getHitCount()));
+				metrics.add(new Metric<>(name + "miss", regionStats.getMissCount()));
+				metrics.add(new Metric<>(name + "put", regionStats.getPutCount()));
+				metrics.add(new Metric<>(name + "size", regionStats.getElementCountInMemory()));
+			}
+		});
+		return metrics;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.nhis.comm.context.orm;
+
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Created by sewoo on 2017. 2. 8..
+ * 페이징 검색의 총 건수를 일정 시간 보유하는 캐시.
+ * <p> Pagination.CountMode#Cached 지정시에 OrmTemplate에서 이용됩니다.
+ * 키는 정규화한 쿼리 문자열과 인수 값이며, 갱신 내용은 ttlMillis 경과 후에 반영됩니다.
+ */
+@Setter
+@ConfigurationProperties(prefix = "extension.orm.count-cache")
+public class OrmCountCache {
+
+	/** 보유 기간 (msec). 0 이하는 캐시하지 않음 */
+	private long ttlMillis = 60000L;
+	/** 최대 보유 건수 */
+	private int maxEntries = 1000;
+
+	private final ConcurrentMap<String, Entry> cache = new ConcurrentHashMap<>();
+
+	/** 보유중인 건수를 반환합니다. 보유하지 않았거나 기한이 지났을 때는 loader로 산출하여 보유합니다. */
+	public long get(String key, Supplier<Long> loader) {
+		if (ttlMillis <= 0) {
+			return loader.get();
+		}
+		long now = System.nanoTime();
+		Entry entry = cache.get(key);
+		if (entry != null && !entry.expired(now)) {
+			return entry.total;
+		}
+		long total = loader.get();
+		if (entry == null && maxEntries <= cache.size()) {
+			evict(now);
+		}
+		cache.put(key, new Entry(total, now + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+		return total;
+	}
+
+	/** 기한이 지난 항목을 제거하고, 그래도 가득 찼을 때는 기한이 가장 가까운 항목을 제거합니다. */
+	private void evict(long now) {
+		cache.values().removeIf(v -> v.expired(now));
+		if (cache.size() < maxEntries) {
+			return;
+		}
+		Map.Entry<String, Entry> oldest = null;
+		for (Iterator<Map.Entry<String, Entry>> it = cache.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<String, Entry> v = it.next();
+			if (oldest == null || v.getValue().expireNanos - oldest.getValue().expireNanos < 0) {
+				oldest = v;
+			}
+		}
+		if (oldest != null) {
+			cache.remove(oldest.getKey(), oldest.getValue());
+		}
+	}
+
+	/** 보유중인 건수를 모두 파기합니다. */
+	public void clear() {
+		cache.clear();
+	}
+
+	/** 보유중인 항목 수를 반환합니다. */
+	public int size() {
+		return cache.size();
+	}
+
+	private static class Entry {
+		private final long total;
+		private final long expireNanos;
+
+		Entry(long total, long expireNanos) {
+			this.total = total;
+			this.expireNanos = expireNanos;
+		}
+
+		boolean expired(long now) {
+			return 0 <= now - expireNanos;
+		}
+	}
+
+}
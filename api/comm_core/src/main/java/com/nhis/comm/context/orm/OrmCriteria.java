@@ -1,15 +1,25 @@
 package com.nhis.comm.context.orm;
 
+import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.criterion.MatchMode;
+import org.springframework.beans.PropertyAccessor;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.util.Assert;
 
 import javax.persistence.EntityManager;
 import javax.persistence.criteria.*;
+import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.Metamodel;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -34,9 +44,15 @@ public class OrmCriteria<T> {
 	private final Root<T> root;
 	private final Set<Predicate> predicates = new LinkedHashSet<>();
 	private final Set<Order> orders = new LinkedHashSet<>();
+	private List<Sort.SortOrder> keysetOrders = Collections.emptyList();
+	/** OrmPreparedQuery 컴파일시의 인수 (그 외는 null) */
+	private final Map<String, Object> args;
+	/** *Param 메소드로 이용한 인수 이름과 바인드시의 값 변환 */
+	private final Map<String, Function<Object, Object>> params = new LinkedHashMap<>();
 
 	/** 지정한 Entity 클래스에 별칭을 끈 붙인 Criteria를 생성합니다. */
-	private OrmCriteria(EntityManager em, Class<T> clazz, String alias) {
+	private OrmCriteria(EntityManager em, Class<T> clazz, String alias, Map<String, Object> args) {
+		this.args = args;
 		this.clazz = clazz;
 		this.metamodel = em.getMetamodel();
 		this.builder = em.getCriteriaBuilder();
@@ -150,7 +166,7 @@ public class OrmCriteria<T> {
 		return this;
 	}
 
-	private boolean isValid(final Object value) {
+	static boolean isValid(final Object value) {
 		if (value instanceof String) {
 			return StringUtils.isNotBlank((String) value);
 		} else if (value instanceof Optional) {
@@ -194,6 +210,75 @@ public class OrmCriteria<T> {
 		return this;
 	}
 
+	/**
+	 * 이름 부여 인수로 일치 조건을 부여합니다. (인수 값이 null의 경우는 무시됩니다)
+	 * <p> *Param 메소드는 OrmPreparedQuery 안에서만 이용할 수 있습니다.
+	 */
+	public OrmCriteria<T> equalParam(String field, String name) {
+		if (isValidParam(name)) {
+			Path<?> path = root.get(field);
+			add(builder.equal(path, param(name, path.getJavaType(), v -> v)));
+		}
+		return this;
+	}
+
+	/** 이름 부여 인수로 like 조건을 부여합니다. (인수 값이 null의 경우는 무시됩니다) */
+	public OrmCriteria<T> likeParam(String field, String name, MatchMode mode) {
+		if (isValidParam(name)) {
+			add(builder.like(root.get(field), param(name, String.class, v -> mode.toMatchString(v.toString()))));
+		}
+		return this;
+	}
+
+	/** 이름 부여 인수로 like 조건을 부여합니다. [여러 필드에 대한 OR 결합 (인수 값이 null의 경우는 무시됩니다) */
+	public OrmCriteria<T> likeParam(String[] fields, String name, MatchMode mode) {
+		if (isValidParam(name)) {
+			ParameterExpression<String> param = param(name, String.class, v -> mode.toMatchString(v.toString()));
+			Predicate[] predicates = new Predicate[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				predicates[i] = builder.like(root.get(fields[i]), param);
+			}
+			add(builder.or(predicates));
+		}
+		return this;
+	}
+
+	/** 이름 부여 인수로 필드 &gt;= 값 조건을 부여합니다. (인수 값이 null의 경우는 무시됩니다) */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public OrmCriteria<T> gteParam(String field, String name) {
+		if (isValidParam(name)) {
+			Path path = root.get(field);
+			add(builder.greaterThanOrEqualTo(path, (Expression) param(name, path.getJavaType(), v -> v)));
+		}
+		return this;
+	}
+
+	/** 이름 부여 인수로 필드 &lt;= 값 조건을 부여합니다. (인수 값이 null의 경우는 무시됩니다) */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public OrmCriteria<T> lteParam(String field, String name) {
+		if (isValidParam(name)) {
+			Path path = root.get(field);
+			add(builder.lessThanOrEqualTo(path, (Expression) param(name, path.getJavaType(), v -> v)));
+		}
+		return this;
+	}
+
+	private boolean isValidParam(String name) {
+		Assert.state(args != null, "*Param 조건은 OrmPreparedQuery 안에서만 이용할 수 있습니다.");
+		return isValid(args.get(name));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <Y> ParameterExpression<Y> param(String name, Class<Y> type, Function<Object, Object> converter) {
+		params.put(name, converter);
+		return builder.parameter((Class<Y>) ClassUtils.primitiveToWrapper(type), name);
+	}
+
+	/** *Param 메소드로 이용한 인수 이름과 바인드시의 값 변환을 반환합니다. */
+	Map<String, Function<Object, Object>> params() {
+		return params;
+	}
+
 	/** in 조건을 부여합니다. */
 	public OrmCriteria<T> in(String field, final Object[] values) {
 		if (values != null && 0 < values.length) {
@@ -294,18 +379,84 @@ public class OrmCriteria<T> {
 		return this;
 	}
 
+	/**
+	 * keyset (seek) 페이징 조건을 부여합니다.
+	 * <p> 기존 정렬 조건은 sort (+ 순서를 일의로 정하기 위한 ID)로 대체됩니다.
+	 * cursor가 있을 때는 그 정렬 키보다 뒤의 행만 대상으로 하는 조건을 추가하므로 OFFSET 없이 다음 페이지를 얻을 수 있습니다.
+	 * <p> 정렬 키에 대응하는 인덱스를 준비하십시오.
+	 * @param cursor 직전 페이지의 계속 토큰 (#keysetToken). 첫 페이지는 null
+	 */
+	public OrmCriteria<T> keyset(Sort sort, String cursor) {
+		List<Sort.SortOrder> keys = new ArrayList<>(sort == null ? Collections.emptyList() : sort.getOrders());
+		idAttribute().filter(id -> keys.stream().noneMatch(o -> o.getProperty().equals(id))).ifPresent(id ->
+				keys.add(new Sort.SortOrder(id, keys.isEmpty() || keys.get(keys.size() - 1).isAscending())));
+		orders.clear();
+		keys.forEach(this::sort);
+		keysetOrders = keys;
+		if (StringUtils.isNotBlank(cursor)) {
+			add(seek(keys, KeysetToken.decode(cursor, keyTypes(keys))));
+		}
+		return this;
+	}
+
+	/** keyset 페이징시 지정한 행 이후를 얻기 위한 계속 토큰을 반환합니다. */
+	public String keysetToken(T row) {
+		PropertyAccessor accessor = PropertyAccessorFactory.forDirectFieldAccess(row);
+		return KeysetToken.encode(keysetOrders.stream()
+				.map(o -> accessor.getPropertyValue(o.getProperty())).toArray());
+	}
+
+	/** (k1 > v1) or (k1 = v1 and k2 > v2) or ... 형식의 seek 조건을 생성합니다. (내림차순은 <) */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Predicate seek(List<Sort.SortOrder> keys, Object[] values) {
+		Predicate[] ors = new Predicate[keys.size()];
+		for (int i = 0; i < keys.size(); i++) {
+			Predicate[] ands = new Predicate[i + 1];
+			for (int j = 0; j < i; j++) {
+				ands[j] = builder.equal(root.get(keys.get(j).getProperty()), values[j]);
+			}
+			Expression<Comparable> path = root.get(keys.get(i).getProperty());
+			Comparable value = (Comparable) values[i];
+			ands[i] = keys.get(i).isAscending() ? builder.greaterThan(path, value) : builder.lessThan(path, value);
+			ors[i] = builder.and(ands);
+		}
+		return builder.or(ors);
+	}
+
+	private Class<?>[] keyTypes(List<Sort.SortOrder> keys) {
+		return keys.stream().map(o -> root.get(o.getProperty()).getJavaType()).toArray(Class<?>[]::new);
+	}
+
+	private Optional<String> idAttribute() {
+		EntityType<T> entity = metamodel.entity(clazz);
+		if (!entity.hasSingleIdAttribute()) {
+			return Optional.empty();
+		}
+		return Optional.of(entity.getId(entity.getIdType().getJavaType()).getName());
+	}
+
 	public boolean emptySort() {
 		return !orders.isEmpty();
 	}
 
+	/** 검색 조건이 하나도 지정되지 않았을 때는 true */
+	public boolean emptyCondition() {
+		return predicates.isEmpty();
+	}
+
 	/** 지정한 Entity 클래스를 축으로 한 Criteria를 생성합니다. */
 	public static <T> OrmCriteria<T> of(EntityManager em, Class<T> clazz) {
-		return new OrmCriteria<>(em, clazz, DefaultAlias);
+		return new OrmCriteria<>(em, clazz, DefaultAlias, null);
 	}
 
 	/** 지정한 Entity 클래스에 별칭을 끈 붙인 Criteria를 생성합니다. */
 	public static <T> OrmCriteria<T> of(EntityManager em, Class<T> clazz, String alias) {
-		return new OrmCriteria<>(em, clazz, alias);
+		return new OrmCriteria<>(em, clazz, alias, null);
+	}
+
+	/** OrmPreparedQuery 컴파일용 Criteria를 생성합니다. */
+	static <T> OrmCriteria<T> of(EntityManager em, Class<T> clazz, String alias, Map<String, Object> args) {
+		return new OrmCriteria<>(em, clazz, alias, args);
 	}
 
 }
@@ -2,11 +2,16 @@ package com.nhis.comm.context.orm;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
 import lombok.Data;
 import org.springframework.boot.jdbc.DatabaseDriver;
 import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -34,22 +39,112 @@ public class OrmDataSourceProperties {
 
 	/** 연결 상태를 확인 할 때 true */
 	private boolean validation = true;
-	/** 연결 상태 확인 쿼리 (미 설정시하고 Database가 지원하는 때는 자동 설정) */
+	/** 연결 상태 확인 쿼리 (미 설정시는 JDBC4의 Connection#isValid로 확인합니다. JDBC4 미지원 드라이버만 설정하십시오) */
 	private String validationQuery;
+	/** 연결 상태 확인의 대기 시간 (msec) */
+	private long validationTimeout = 5000L;
+
+	/** 풀 이름 (metrics 이름의 일부. 미설정시는 HikariCP가 자동 설정) */
+	private String poolName;
+	/** 커넥션 취득 대기 시간 (msec) */
+	private long connectionTimeout = 30000L;
+	/** 미사용 커넥션을 minIdle까지 닫는 시간 (msec) */
+	private long idleTimeout = 600000L;
+	/** 커넥션의 최대 수명 (msec). DB / 네트워크 기기의 접속 제한 시간보다 짧게 설정합니다. */
+	private long maxLifetime = 1800000L;
+	/** 커넥션 누수로 간주하여 경고를 출력하는 대여 시간 (msec). 0일 때는 검출하지 않습니다. */
+	private long leakDetectionThreshold = 0L;
+	/** 풀의 상태를 JMX MBean으로 공개할 때 true */
+	private boolean registerMbeans = false;
+
+	/** 드라이버의 PreparedStatement 캐시를 이용할 때 true (MySQL / Oracle 드라이버만. props의 설정이 우선합니다) */
+	private boolean prepStmtCache = true;
+	/** 커넥션별로 캐시하는 PreparedStatement 수 */
+	private int prepStmtCacheSize = 250;
+	/** 캐시하는 SQL의 최대 길이 (MySQL 드라이버만) */
+	private int prepStmtCacheSqlLimit = 2048;
+
+	/** 읽기 전용 트랜잭션의 접속처 (레플리카) URL. 미설정시는 모두 url로 접속합니다. (OrmRoutingDataSource 참조) */
+	private List<String> replicaUrls = new ArrayList<>();
+	/** 접속에 실패한 레플리카를 분배 대상에서 제외하는 시간 (msec) */
+	private long replicaRetryMillis = 30000L;
+	/** 레플리카 접속 대기 시간 (msec). 장애시에 요청이 오래 대기하지 않도록 짧게 설정합니다. */
+	private long replicaConnectionTimeout = 3000L;
 
 	public DataSource dataSource() {
+		return dataSource(null);
+	}
+
+	/**
+	 * DataSource를 생성합니다.
+	 * @param metrics 풀의 통계를 받는 MetricsTrackerFactory (OrmPoolMetrics 참조. null일 때는 수집하지 않습니다)
+	 */
+	public DataSource dataSource(MetricsTrackerFactory metrics) {
+		HikariDataSource primary = new HikariDataSource(config(url, poolName, metrics));
+		if (replicaUrls.isEmpty()) {
+			return primary;
+		}
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (int i = 0; i < replicaUrls.size(); i++) {
+			String replicaUrl = replicaUrls.get(i);
+			HikariConfig config = config(replicaUrl, poolName != null ? poolName + ".replica" + i : null, metrics);
+			config.setConnectionTimeout(replicaConnectionTimeout);
+			config.setValidationTimeout(Math.min(validationTimeout, replicaConnectionTimeout)); // 접속 대기 시간 이하로
+			config.setInitializationFailFast(false);
+			replicas.put(replicaUrl, new HikariDataSource(config));
+		}
+		return new OrmRoutingDataSource(primary, replicas, replicaRetryMillis);
+	}
+
+	private HikariConfig config(String jdbcUrl, String name, MetricsTrackerFactory metrics) {
 		HikariConfig config = new HikariConfig();
 		config.setDriverClassName(driverClassName());
-		config.setJdbcUrl(url);
+		config.setJdbcUrl(jdbcUrl);
 		config.setUsername(username);
 		config.setPassword(password);
 		config.setMinimumIdle(minIdle);
 		config.setMaximumPoolSize(maxPoolSize);
-		if (validation) {
-			config.setConnectionTestQuery(validationQuery());
+		config.setConnectionTimeout(connectionTimeout);
+		config.setValidationTimeout(validationTimeout);
+		config.setIdleTimeout(idleTimeout);
+		config.setMaxLifetime(maxLifetime);
+		config.setLeakDetectionThreshold(leakDetectionThreshold);
+		config.setRegisterMbeans(registerMbeans);
+		if (name != null) {
+			config.setPoolName(name);
 		}
-		config.setDataSourceProperties(props);
-		return new HikariDataSource(config);
+		if (validation && StringUtils.hasText(validationQuery)) {
+			config.setConnectionTestQuery(validationQuery);
+		}
+		if (metrics != null) {
+			config.setMetricsTrackerFactory(metrics);
+		}
+		config.setDataSourceProperties(dataSourceProperties(jdbcUrl));
+		return config;
+	}
+
+	/** 드라이버에 전달하는 속성. PreparedStatement 캐시는 드라이버별 속성으로 설정합니다. */
+	private Properties dataSourceProperties(String jdbcUrl) {
+		Properties properties = new Properties();
+		properties.putAll(props);
+		if (!prepStmtCache) {
+			return properties;
+		}
+		switch (DatabaseDriver.fromJdbcUrl(jdbcUrl)) {
+		case MYSQL:
+		case MARIADB:
+			properties.putIfAbsent("cachePrepStmts", "true");
+			properties.putIfAbsent("prepStmtCacheSize", String.valueOf(prepStmtCacheSize));
+			properties.putIfAbsent("prepStmtCacheSqlLimit", String.valueOf(prepStmtCacheSqlLimit));
+			properties.putIfAbsent("useServerPrepStmts", "true");
+			break;
+		case ORACLE:
+			properties.putIfAbsent("oracle.jdbc.implicitStatementCacheSize", String.valueOf(prepStmtCacheSize));
+			break;
+		default:
+			break;
+		}
+		return properties;
 	}
 
 	private String driverClassName() {
@@ -59,11 +154,4 @@ public class OrmDataSourceProperties {
 		return DatabaseDriver.fromJdbcUrl(url).getDriverClassName();
 	}
 
-	private String validationQuery() {
-		if (StringUtils.hasText(validationQuery)) {
-			return validationQuery;
-		}
-		return DatabaseDriver.fromJdbcUrl(url).getValidationQuery();
-	}
-
 }
@@ -0,0 +1,99 @@
+package com.nhis.comm.context.orm;
+
+import com.zaxxer.hikari.metrics.MetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created by sewoo on 2017. 2. 22..
+ * 커넥션 풀 (HikariCP)의 상태를 actuator의 metrics (orm.pool.[풀 이름].*)로 공개합니다.
+ * <p> OrmDataSourceProperties#dataSource에 전달하면 풀 생성시에 HikariCP로부터 통계를 받습니다.
+ * <p> 커넥션 수 (active / idle / total / pending)는 HikariCP가 1초 간격으로 갱신합니다.
+ * 대기 시간은 커넥션 취득까지 기다린 시간 (msec)이며, 최대값은 기동 후의 값입니다.
+ */
+public class OrmPoolMetrics implements PublicMetrics, MetricsTrackerFactory {
+
+	/** 풀 이름과 통계 */
+	private final Map<String, PoolTracker> pools = new ConcurrentSkipListMap<>();
+
+	/** {@inheritDoc} */
+	@Override
+	public MetricsTracker create(String poolName, PoolStats poolStats) {
+		PoolTracker tracker = new PoolTracker(poolName, poolStats);
+		pools.put(poolName, tracker);
+		return tracker;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> metrics = new ArrayList<>();
+		pools.forEach((name, tracker) -> {
+			String prefix = "orm.pool." + name + ".";
+			PoolStats stats = tracker.stats;
+			metrics.add(new Metric<>(prefix + "active", stats.getActiveConnections()));
+			metrics.add(new Metric<>(prefix + "idle", stats.getIdleConnections()));
+			metrics.add(new Metric<>(prefix + "total", stats.getTotalConnections()));
+			metrics.add(new Metric<>(prefix + "pending", stats.getPendingThreads()));
+			long acquired = tracker.acquired.sum();
+			metrics.add(new Metric<>(prefix + "acquired", acquired));
+			metrics.add(new Metric<>(prefix + "wait.mean", acquired == 0 ? 0d : tracker.waitNanos.sum() / 1000000d / acquired));
+			metrics.add(new Metric<>(prefix + "wait.max", tracker.waitMaxNanos.get() / 1000000d));
+			long used = tracker.used.sum();
+			metrics.add(new Metric<>(prefix + "usage.mean", used == 0 ? 0d : (double) tracker.usageMillis.sum() / used));
+			metrics.add(new Metric<>(prefix + "timeout", tracker.timeout.sum()));
+		});
+		return metrics;
+	}
+
+	/** 풀 단위의 통계 */
+	private class PoolTracker extends MetricsTracker {
+		private final String poolName;
+		private final PoolStats stats;
+		private final LongAdder acquired = new LongAdder();
+		private final LongAdder waitNanos = new LongAdder();
+		private final AtomicLong waitMaxNanos = new AtomicLong();
+		private final LongAdder used = new LongAdder();
+		private final LongAdder usageMillis = new LongAdder();
+		private final LongAdder timeout = new LongAdder();
+
+		PoolTracker(String poolName, PoolStats stats) {
+			this.poolName = poolName;
+			this.stats = stats;
+		}
+
+		@Override
+		public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+			acquired.increment();
+			waitNanos.add(elapsedAcquiredNanos);
+			waitMaxNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+		}
+
+		@Override
+		public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+			used.increment();
+			usageMillis.add(elapsedBorrowedMillis);
+		}
+
+		@Override
+		public void recordConnectionTimeout() {
+			timeout.increment();
+		}
+
+		@Override
+		public void close() {
+			pools.remove(poolName, this);
+		}
+	}
+
+}
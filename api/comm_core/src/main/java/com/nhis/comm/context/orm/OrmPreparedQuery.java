@@ -0,0 +1,48 @@
+package com.nhis.comm.context.orm;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.persistence.criteria.CriteriaQuery;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Created by sewoo on 2017. 2. 9..
+ * 값에 의존하지 않는 Criteria 검색의 형태를 표현합니다.
+ * <p> 처음 실행시에 조립한 CriteriaQuery를 JPQL로 변환하여 OrmQueryCache에 보유하고,
+ * 이후는 Criteria 구축을 생략하고 인수만 다시 바인드합니다. (OrmTemplate#find(OrmPreparedQuery, Map) 참조)
+ * <p> 조건 값은 OrmCriteria#equalParam 등의 *Param 메소드에 인수 이름으로 지정하십시오.
+ * 값이 비어 있는 인수의 조건은 무시되며, 유효한 인수의 조합마다 컴파일됩니다.
+ * <p> 상수로 정의하여 재이용하십시오.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class OrmPreparedQuery<T> {
+
+	/** 쿼리 이름 (캐시 키로 이용하므로 응용 프로그램 내에서 고유하게 지정하십시오) */
+	private final String name;
+	private final Class<T> entityClass;
+	private final String alias;
+	private final Function<OrmCriteria<T>, CriteriaQuery<T>> func;
+
+	/** 유효한 인수 이름의 조합으로 캐시 키를 반환합니다. */
+	String shape(final Map<String, Object> args) {
+		return name + args.entrySet().stream()
+				.filter(v -> OrmCriteria.isValid(v.getValue()))
+				.map(Map.Entry::getKey)
+				.sorted()
+				.collect(Collectors.joining(",", "[", "]"));
+	}
+
+	public static <T> OrmPreparedQuery<T> of(String name, Class<T> entityClass, Function<OrmCriteria<T>, CriteriaQuery<T>> func) {
+		return of(name, entityClass, OrmCriteria.DefaultAlias, func);
+	}
+
+	public static <T> OrmPreparedQuery<T> of(String name, Class<T> entityClass, String alias, Function<OrmCriteria<T>, CriteriaQuery<T>> func) {
+		return new OrmPreparedQuery<>(name, entityClass, alias, func);
+	}
+
+}
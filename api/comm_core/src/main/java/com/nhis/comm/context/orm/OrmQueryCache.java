@@ -0,0 +1,93 @@
+package com.nhis.comm.context.orm;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Created by sewoo on 2017. 2. 9..
+ * OrmPreparedQuery를 컴파일한 JPQL을 보유하는 캐시.
+ * <p> 적중/실패 건수는 actuator의 metrics (orm.query-cache.*)로 공개됩니다.
+ */
+@Setter
+@ConfigurationProperties(prefix = "extension.orm.query-cache")
+public class OrmQueryCache implements PublicMetrics {
+
+	/** 최대 보유 건수 (넘은 형태는 보유하지 않고 매번 컴파일합니다) */
+	private int maxEntries = 500;
+
+	private final ConcurrentMap<String, CompiledQuery> cache = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/** 보유중인 컴파일 결과를 반환합니다. 보유하지 않았을 때는 compiler로 컴파일하여 보유합니다. */
+	public CompiledQuery get(String key, Supplier<CompiledQuery> compiler) {
+		CompiledQuery compiled = cache.get(key);
+		if (compiled != null) {
+			hits.increment();
+			return compiled;
+		}
+		misses.increment();
+		compiled = compiler.get();
+		if (cache.size() < maxEntries) {
+			CompiledQuery prev = cache.putIfAbsent(key, compiled);
+			return prev != null ? prev : compiled;
+		}
+		return compiled;
+	}
+
+	/** 보유중인 컴파일 결과를 모두 파기합니다. */
+	public void clear() {
+		cache.clear();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public long hits() {
+		return hits.sum();
+	}
+
+	public long misses() {
+		return misses.sum();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Collection<Metric<?>> metrics() {
+		return Arrays.asList(
+				new Metric<>("orm.query-cache.size", size()),
+				new Metric<>("orm.query-cache.hits", hits()),
+				new Metric<>("orm.query-cache.misses", misses()));
+	}
+
+	/** 컴파일된 쿼리를 표현합니다. */
+	@Getter
+	public static class CompiledQuery {
+		/** 변환된 JPQL */
+		private final String qlString;
+		/** 형태에 포함된 상수 인수 */
+		private final Map<String, Object> constants;
+		/** 호출자가 지정하는 인수 이름과 바인드시의 값 변환 */
+		private final Map<String, Function<Object, Object>> params;
+
+		public CompiledQuery(String qlString, Map<String, Object> constants, Map<String, Function<Object, Object>> params) {
+			this.qlString = qlString;
+			this.constants = constants;
+			this.params = params;
+		}
+	}
+
+}
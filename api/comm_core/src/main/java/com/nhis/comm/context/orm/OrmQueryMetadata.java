@@ -1,5 +1,7 @@
 package com.nhis.comm.context.orm;
 
+import org.hibernate.annotations.QueryHints;
+
 import javax.persistence.LockModeType;
 import java.util.HashMap;
 import java.util.Map;
@@ -13,6 +15,8 @@ public class OrmQueryMetadata {
 
 	private final Map<String, Object> hints = new HashMap<>();
 	private Optional<LockModeType> lockMode = Optional.empty();
+	private Optional<Integer> fetchSize = Optional.empty();
+	private boolean replica;
 
 	private OrmQueryMetadata() {}
 
@@ -26,6 +30,16 @@ public class OrmQueryMetadata {
 		return lockMode;
 	}
 
+	/** 내부에 보유 된 스트리밍 취득시의 fetch size를 반환합니다. */
+	public Optional<Integer> fetchSize() {
+		return fetchSize;
+	}
+
+	/** 레플리카로 검색할 때는 true */
+	public boolean replica() {
+		return replica;
+	}
+
 	/** hint를 추가합니다。 */
 	public OrmQueryMetadata hint(String hintName, Object value) {
 		this.hints.put(hintName, value);
@@ -38,6 +52,34 @@ public class OrmQueryMetadata {
 		return this;
 	}
 
+	/**
+	 * 검색 결과를 쿼리 캐시에 보유합니다.
+	 * <p> OrmRepositoryProperties#secondLevelCache 유효시만 동작합니다. 대상 테이블이 갱신되면 자동으로 무효화됩니다.
+	 */
+	public OrmQueryMetadata cacheable() {
+		return hint(QueryHints.CACHEABLE, true);
+	}
+
+	/** 지정한 리전의 쿼리 캐시에 검색 결과를 보유합니다. */
+	public OrmQueryMetadata cacheable(String region) {
+		return cacheable().hint(QueryHints.CACHE_REGION, region);
+	}
+
+	/**
+	 * 검색을 레플리카로 발행합니다. (OrmRoutingDataSource 이용시만)
+	 * <p> 트랜잭션 밖의 검색에서만 유효하며, 트랜잭션 안에서는 무시합니다. 트랜잭션 단위의 분배는 @Transactional(readOnly = true)를 이용하십시오.
+	 */
+	public OrmQueryMetadata replica(boolean replica) {
+		this.replica = replica;
+		return this;
+	}
+
+	/** 스트리밍 취득 (OrmTemplate#stream 등)시의 fetch size를 설정합니다. */
+	public OrmQueryMetadata fetchSize(int fetchSize) {
+		this.fetchSize = Optional.of(fetchSize);
+		return this;
+	}
+
 	public static OrmQueryMetadata empty() {
 		return new OrmQueryMetadata();
 	}
@@ -50,4 +92,16 @@ public class OrmQueryMetadata {
 		return empty().hint(hintName, value);
 	}
 
+	public static OrmQueryMetadata withCache() {
+		return empty().cacheable();
+	}
+
+	public static OrmQueryMetadata withReplica() {
+		return empty().replica(true);
+	}
+
+	public static OrmQueryMetadata withFetchSize(int fetchSize) {
+		return empty().fetchSize(fetchSize);
+	}
+
 }
@@ -23,8 +23,12 @@ import javax.persistence.EntityNotFoundException;
 import javax.persistence.LockModeType;
 import javax.sql.DataSource;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Created by sewoo on 2016. 12. 28..
@@ -41,6 +45,12 @@ public abstract class OrmRepository implements Repository {
 	private DomainHelper dh;
 	@Autowired(required = false)
 	private OrmInterceptor interceptor;
+	@Autowired(required = false)
+	private OrmCountCache countCache;
+	@Autowired(required = false)
+	private OrmQueryCache queryCache;
+	/** #saveAll / #updateAll의 flushAndClear 건수. (OrmRepositoryProperties#batchSize와 같은 값. 0 이하는 표준 건수) */
+	private int batchSize = OrmRepositoryProperties.DefaultBatchSize;
 
 	public abstract EntityManager em();
 
@@ -59,11 +69,11 @@ public abstract class OrmRepository implements Repository {
 	 * <p> OrmTemplate 외침 때마다 생성됩니다.
 	 */
 	public OrmTemplate tmpl() {
-		return new OrmTemplate(em());
+		return new OrmTemplate(em(), null, countCache, queryCache);
 	}
 
 	public OrmTemplate tmpl(OrmQueryMetadata metadata) {
-		return new OrmTemplate(em(), metadata);
+		return new OrmTemplate(em(), metadata, countCache, queryCache);
 	}
 
 	/** 지정한 Entity 클래스를 축으로 한 Criteria를 생성합니다。 */
@@ -117,6 +127,14 @@ public abstract class OrmRepository implements Repository {
 		return tmpl().loadAll(clazz);
 	}
 
+	/**
+	 * 관리하는 {@link Entity}을 모두 스트리밍 취득합니다.
+	 * <p> 대량 데이터를 다룰 때는 #findAll 대신 이용하십시오. (OrmTemplate#stream 참조)
+	 */
+	public <T extends Entity> Stream<T> streamAll(Class<T> clazz) {
+		return tmpl().streamAll(clazz);
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public <T extends Entity> T save(T entity) {
@@ -146,6 +164,53 @@ public abstract class OrmRepository implements Repository {
 		return entity;
 	}
 
+	/**
+	 * {@link Entity}를 일괄 신규 추가합니다.
+	 * <p> batchSize 건마다 #flushAndClear를 호출하므로 대량 등록에서도 세션 캐시가 일정 크기로 유지됩니다.
+	 * JDBC 배치 (OrmRepositoryProperties#batchSize)와 같은 값을 지정하면 batchSize 건이 한 번에 발행됩니다.
+	 * <p> 처리 도중에 세션 캐시가 초기화되므로 호출자가 보유한 엔티티는 분리 상태가 되는 점에 주의하십시오.
+	 * @return 처리 건수
+	 */
+	public <T extends Entity> int saveAll(Iterable<T> entities, int batchSize) {
+		return batch(entities, batchSize, this::save);
+	}
+
+	public <T extends Entity> int saveAll(Iterable<T> entities) {
+		return saveAll(entities, batchSize());
+	}
+
+	/**
+	 * {@link Entity}를 일괄 업데이트합니다.
+	 * <p> batchSize 건마다 #flushAndClear를 호출합니다. (#saveAll과 같은 주의 사항이 있습니다)
+	 * @return 처리 건수
+	 */
+	public <T extends Entity> int updateAll(Iterable<T> entities, int batchSize) {
+		return batch(entities, batchSize, this::update);
+	}
+
+	public <T extends Entity> int updateAll(Iterable<T> entities) {
+		return updateAll(entities, batchSize());
+	}
+
+	private int batchSize() {
+		return 0 < batchSize ? batchSize : OrmRepositoryProperties.DefaultBatchSize;
+	}
+
+	private <T extends Entity> int batch(Iterable<T> entities, int batchSize, Function<T, T> command) {
+		int count = 0;
+		for (T entity : entities) {
+			command.apply(entity);
+			count++;
+			if (0 < batchSize && count % batchSize == 0) {
+				flushAndClear();
+			}
+		}
+		if (0 < count) {
+			flushAndClear();
+		}
+		return count;
+	}
+
 	/**
 	 * 세션 캐시중인 영속화되지 않은 엔티티를 모두 DB 및 동기화 (SQL 발행)합니다.
 	 * <p> SQL 발행 타이밍을 명확히하려는 곳에서 호출하도록하십시오. 일괄 처리 등에서 세션 캐시가
@@ -172,10 +237,26 @@ public abstract class OrmRepository implements Repository {
 	@Data
 	@EqualsAndHashCode(callSuper = false)
 	public static class OrmRepositoryProperties extends JpaProperties {
+		public static final int DefaultBatchSize = 50;
+
 		/** 스키마 끈 부착 대상으로하는 패키지. (annotatedClasses과 중 하나를 설정) */
 		private String[] packageToScan;
 		/** Entity로 등록하는 클래스. (packageToScan과 중 하나를 설정) */
 		private Class<?>[] annotatedClasses;
+		/** JDBC 배치 건수 (hibernate.jdbc.batch_size. 0 이하는 배치 무효) */
+		private int batchSize = DefaultBatchSize;
+		/** 배치 효율을 높이기 위해 INSERT 문을 엔티티 단위로 정렬할 때는 true */
+		private boolean orderInserts = true;
+		/** 배치 효율을 높이기 위해 UPDATE 문을 엔티티 단위로 정렬할 때는 true */
+		private boolean orderUpdates = true;
+		/** 2차 캐시 (@Cacheable 지정 엔티티)를 이용할 때는 true */
+		private boolean secondLevelCache = false;
+		/** 쿼리 캐시 (OrmQueryMetadata#cacheable 지정 쿼리)를 이용할 때는 true. (secondLevelCache 유효시만) */
+		private boolean queryCache = true;
+		/** 2차 캐시의 설정 파일 (ehcache 2.x 형식). 리전 이름은 "[영속성 유닛 이름].[엔티티 클래스 이름]" */
+		private String cacheConfig = "ehcache-orm.xml";
+		/** 캐시 통계 (actuator의 orm.cache.*)를 수집할 때는 true. (secondLevelCache 유효시만) */
+		private boolean cacheStatistics = true;
 
 		public LocalContainerEntityManagerFactoryBean entityManagerFactoryBean(String name, final DataSource dataSource) {
 			EntityManagerFactoryBuilder emfBuilder = new EntityManagerFactoryBuilder(
@@ -183,7 +264,7 @@ public abstract class OrmRepository implements Repository {
 			EntityManagerFactoryBuilder.Builder builder = emfBuilder
 					.dataSource(dataSource)
 					.persistenceUnit(name)
-					.properties(getHibernateProperties(dataSource))
+					.properties(hibernateProperties(name, dataSource))
 					.jta(false);
 			if (ArrayUtils.isNotEmpty(annotatedClasses)) {
 				builder.packages(annotatedClasses);
@@ -193,6 +274,28 @@ public abstract class OrmRepository implements Repository {
 			return builder.build();
 		}
 
+		private Map<String, Object> hibernateProperties(String name, final DataSource dataSource) {
+			Map<String, Object> props = new HashMap<>(getHibernateProperties(dataSource));
+			if (0 < batchSize) {
+				props.putIfAbsent("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+				props.putIfAbsent("hibernate.jdbc.batch_versioned_data", "true");
+			}
+			props.putIfAbsent("hibernate.order_inserts", String.valueOf(orderInserts));
+			props.putIfAbsent("hibernate.order_updates", String.valueOf(orderUpdates));
+			if (secondLevelCache) {
+				props.putIfAbsent("hibernate.cache.use_second_level_cache", "true");
+				props.putIfAbsent("hibernate.cache.use_query_cache", String.valueOf(queryCache));
+				props.putIfAbsent("hibernate.cache.region.factory_class", "org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory");
+				props.putIfAbsent("hibernate.cache.region_prefix", name);
+				props.putIfAbsent("net.sf.ehcache.configurationResourceName", cacheConfig);
+				props.putIfAbsent("hibernate.generate_statistics", String.valueOf(cacheStatistics));
+				props.putIfAbsent("javax.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+			} else {
+				props.putIfAbsent("hibernate.cache.use_second_level_cache", "false");
+			}
+			return props;
+		}
+
 		private JpaVendorAdapter vendorAdapter() {
 			AbstractJpaVendorAdapter adapter = new HibernateJpaVendorAdapter();
 			adapter.setShowSql(isShowSql());
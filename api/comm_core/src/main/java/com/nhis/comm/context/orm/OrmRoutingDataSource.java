@@ -0,0 +1,157 @@
+package com.nhis.comm.context.orm;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Created by sewoo on 2017. 2. 10..
+ * 읽기 전용 트랜잭션 (@Transactional(readOnly = true))을 레플리카로 분배하는 DataSource.
+ * <p> 레플리카는 라운드 로빈으로 선택하며, 접속에 실패한 레플리카는 일정 시간 분배 대상에서 제외합니다.
+ * 이용 가능한 레플리카가 없을 때는 프라이머리로 접속합니다.
+ * <p> 트랜잭션 개시시에는 아직 readOnly 속성이 확정되지 않으므로 물리 접속은 처음 SQL 발행시까지 지연됩니다.
+ * <p> 트랜잭션 밖의 검색은 #replica (OrmQueryMetadata#replica)로 명시적으로 레플리카를 지정할 수 있습니다.
+ * 트랜잭션 안에서는 지정을 무시하고 트랜잭션의 readOnly 속성으로 결정합니다.
+ * (접속은 트랜잭션 전체에서 공유되므로 처음 검색만으로 결정하면 이후의 갱신이 레플리카로 발행됩니다)
+ */
+public class OrmRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(OrmRoutingDataSource.class);
+	private static final ThreadLocal<Boolean> replicaHint = new ThreadLocal<>();
+
+	private final DataSource primary;
+	private final List<Replica> replicas = new ArrayList<>();
+	/** 접속에 실패한 레플리카를 분배 대상에서 제외하는 시간 (msec) */
+	private final long retryMillis;
+	private final AtomicInteger counter = new AtomicInteger();
+
+	public OrmRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long retryMillis) {
+		this.primary = primary;
+		replicas.forEach((name, ds) -> this.replicas.add(new Replica(name, ds)));
+		this.retryMillis = retryMillis;
+		setTargetDataSource(new Router());
+		afterPropertiesSet();
+	}
+
+	/** 현재 스레드의 접속처로 레플리카를 이용할 때는 true */
+	private static boolean useReplica() {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		}
+		return Boolean.TRUE.equals(replicaHint.get());
+	}
+
+	/** 레플리카 지정으로 처리를 실행합니다. */
+	public static <T> T replica(Supplier<T> callable) {
+		Boolean prev = replicaHint.get();
+		replicaHint.set(true);
+		try {
+			return callable.get();
+		} finally {
+			if (prev == null) {
+				replicaHint.remove();
+			} else {
+				replicaHint.set(prev);
+			}
+		}
+	}
+
+	private Connection replicaConnection() throws SQLException {
+		int size = replicas.size();
+		int start = Math.floorMod(counter.getAndIncrement(), size);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < size; i++) {
+			Replica replica = replicas.get((start + i) % size);
+			if (!replica.isAvailable(now)) {
+				continue;
+			}
+			try {
+				Connection con = replica.getDataSource().getConnection();
+				replica.up();
+				return con;
+			} catch (SQLException e) {
+				replica.down(System.currentTimeMillis() + retryMillis); // 접속 대기 시간을 포함하지 않도록 실패 시점부터
+				logger.warn("레플리카에 접속할 수 없으므로 분배 대상에서 제외합니다. [{}] [{}]", replica.getName(), e.getMessage());
+			}
+		}
+		return primary.getConnection();
+	}
+
+	/** 레플리카의 이용 가능 상태를 반환합니다. */
+	public Map<String, Boolean> status() {
+		Map<String, Boolean> status = new LinkedHashMap<>();
+		long now = System.currentTimeMillis();
+		replicas.forEach(v -> status.put(v.getName(), v.isAvailable(now)));
+		return status;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void close() {
+		closeQuietly(primary);
+		replicas.forEach(v -> closeQuietly(v.getDataSource()));
+	}
+
+	private void closeQuietly(DataSource ds) {
+		if (ds instanceof Closeable) {
+			try {
+				((Closeable) ds).close();
+			} catch (IOException e) {
+				logger.warn(e.getMessage(), e);
+			}
+		}
+	}
+
+	/** 접속시에 프라이머리와 레플리카를 결정합니다. */
+	private class Router extends AbstractDataSource {
+		@Override
+		public Connection getConnection() throws SQLException {
+			return useReplica() ? replicaConnection() : primary.getConnection();
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return getConnection();
+		}
+	}
+
+	@Getter
+	private static class Replica {
+		private final String name;
+		private final DataSource dataSource;
+		/** 분배 대상에서 제외하는 기한 (epoch msec) */
+		private volatile long downUntil;
+
+		Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+
+		boolean isAvailable(long now) {
+			return downUntil <= now;
+		}
+
+		void up() {
+			downUntil = 0L;
+		}
+
+		void down(long until) {
+			downUntil = until;
+		}
+	}
+
+}
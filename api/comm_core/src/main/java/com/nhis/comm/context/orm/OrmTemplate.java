@@ -2,22 +2,41 @@ package com.nhis.comm.context.orm;
 
 import com.nhis.comm.ValidationException;
 import com.nhis.comm.ValidationException.ErrorKeys;
+import com.nhis.comm.context.orm.OrmQueryCache.CompiledQuery;
+import com.nhis.comm.context.orm.Pagination.CountMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateQuery;
 import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.util.Assert;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
 import javax.persistence.Query;
 import javax.persistence.StoredProcedureQuery;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaQuery;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Created by sewoo on 2016. 12. 28..
@@ -26,21 +45,40 @@ import java.util.function.Function;
  */
 public class OrmTemplate {
 
+		/** 스트리밍 취득시의 표준 fetch size */
+		public static final int DefaultFetchSize = 100;
+
+		private static final Function<CriteriaQuery<?>, CriteriaQuery<?>> NoExtension = q -> q;
+
 		private final EntityManager em;
 		private final Optional<OrmQueryMetadata> metadata;
+		private final Optional<OrmCountCache> countCache;
+		private final Optional<OrmQueryCache> queryCache;
 
 		public OrmTemplate(EntityManager em) {
-			this.em = em;
-			this.metadata = Optional.empty();
+			this(em, null, null);
 		}
 
 		public OrmTemplate(EntityManager em, OrmQueryMetadata metadata) {
+			this(em, metadata, null);
+		}
+
+		public OrmTemplate(EntityManager em, OrmQueryMetadata metadata, OrmCountCache countCache) {
+			this(em, metadata, countCache, null);
+		}
+
+		public OrmTemplate(EntityManager em, OrmQueryMetadata metadata, OrmCountCache countCache, OrmQueryCache queryCache) {
 			this.em = em;
 			this.metadata = Optional.ofNullable(metadata);
+			this.countCache = Optional.ofNullable(countCache);
+			this.queryCache = Optional.ofNullable(queryCache);
 		}
 
 		private <T> TypedQuery<T> query(final CriteriaQuery<T> query) {
-			TypedQuery<T> q = em.createQuery(query);
+			return query(em.createQuery(query));
+		}
+
+		private <T> TypedQuery<T> query(final TypedQuery<T> q) {
 			metadata.ifPresent(meta -> {
 				meta.hints().forEach((k, v) -> q.setHint(k, v));
 				meta.lockMode().ifPresent(l -> q.setLockMode(l));
@@ -69,22 +107,26 @@ public class OrmTemplate {
 		 * ※ 임의의 조건 검색 등 가변 조건 검색이 필요할 때 이용하세요
 		 */
 		public <T> List<T> find(final CriteriaQuery<T> criteria) {
-			return query(criteria).getResultList();
+			return read(() -> query(criteria).getResultList());
 		}
 
 		/**
 		 * Criteria에서 페이징 검색합니다.
 		 * <p> Pagination에 설정된 검색 조건은 무시됩니다. CriteriaQuery 구축시에 설정하도록하십시오.
+		 * <p> 총 건수는 Pagination#countMode에 따라 산출합니다. (criteriaCount 미지정시는 산출하지 않음)
 		 */
 		public <T> PagingList<T> find(final CriteriaQuery<T> criteria, Optional<CriteriaQuery<Long>> criteriaCount, final Pagination page) {
-			Assert.notNull(page);
-			long total = criteriaCount.map(cnt -> query(cnt).getResultList().get(0)).orElse(-1L);
-			if (total == 0) return new PagingList<>(new ArrayList<>(), new Pagination(page, 0));
+			return find(criteria, criteriaCount, page, Optional::empty);
+		}
 
-			TypedQuery<T> query = query(criteria);
-			if (0 < page.getPage()) query.setFirstResult(page.getFirstResult());
-			if (0 < page.getSize()) query.setMaxResults(page.getSize());
-			return new PagingList<T>(query.getResultList(), new Pagination(page, total));
+		private <T> PagingList<T> find(final CriteriaQuery<T> criteria, Optional<CriteriaQuery<Long>> criteriaCount,
+									   final Pagination page, Supplier<Optional<Long>> estimate) {
+			Assert.notNull(page);
+			long total = criteriaCount.map(cnt -> {
+				TypedQuery<Long> query = query(cnt);
+				return total(page, () -> countKey(query), () -> read(query::getResultList).get(0), estimate);
+			}).orElse(-1L);
+			return paging(query(criteria), page, total);
 		}
 
 
@@ -127,19 +169,20 @@ public class OrmTemplate {
 		/**
 		 * Criteria에서 페이징 검색합니다.
 		 * <p> Pagination에 설정된 검색 조건은 무시됩니다. OrmCriteria 구축시에 설정하도록하십시오.
+		 * <p> Pagination#keyset 지정시는 Pagination의 정렬 조건으로 keyset (seek) 페이징합니다.
 		 */
 		public <T> PagingList<T> find(Class<T> entityClass, Function<OrmCriteria<T>, OrmCriteria<T>> func,
 									  final Pagination page) {
 			OrmCriteria<T> criteria = OrmCriteria.of(em, entityClass);
 			func.apply(criteria);
-			return find(criteria.result(), page.isIgnoreTotal() ? Optional.empty() : Optional.of(criteria.resultCount()), page);
+			return find(criteria, NoExtension, page);
 		}
 
 		public <T> PagingList<T> find(Class<T> entityClass, String alias, Function<OrmCriteria<T>, OrmCriteria<T>> func,
 									  final Pagination page) {
 			OrmCriteria<T> criteria = OrmCriteria.of(em, entityClass, alias);
 			func.apply(criteria);
-			return find(criteria.result(), page.isIgnoreTotal() ? Optional.empty() : Optional.of(criteria.resultCount()), page);
+			return find(criteria, NoExtension, page);
 		}
 
 		/**
@@ -151,14 +194,87 @@ public class OrmTemplate {
 									  Function<CriteriaQuery<?>, CriteriaQuery<?>> extension, final Pagination page) {
 			OrmCriteria<T> criteria = OrmCriteria.of(em, entityClass);
 			func.apply(criteria);
-			return find(criteria.result(extension), page.isIgnoreTotal() ? Optional.empty() : Optional.of(criteria.resultCount(extension)), page);
+			return find(criteria, extension, page);
 		}
 
 		public <T> PagingList<T> find(Class<T> entityClass, String alias, Function<OrmCriteria<T>, OrmCriteria<T>> func,
 									  Function<CriteriaQuery<?>, CriteriaQuery<?>> extension, final Pagination page) {
 			OrmCriteria<T> criteria = OrmCriteria.of(em, entityClass, alias);
 			func.apply(criteria);
-			return find(criteria.result(extension), page.isIgnoreTotal() ? Optional.empty() : Optional.of(criteria.resultCount(extension)), page);
+			return find(criteria, extension, page);
+		}
+
+		private <T> PagingList<T> find(OrmCriteria<T> criteria, Function<CriteriaQuery<?>, CriteriaQuery<?>> extension,
+									   final Pagination page) {
+			if (page.isKeyset()) {
+				return findKeyset(criteria, extension, page);
+			}
+			Supplier<Optional<Long>> estimate = () -> extension == NoExtension && criteria.emptyCondition()
+					? OrmUtils.estimateCount(em, criteria.entityClass()) : Optional.empty();
+			return find(criteria.result(extension), page.isIgnoreTotal() ? Optional.empty() : Optional.of(criteria.resultCount(extension)), page, estimate);
+		}
+
+		/**
+		 * keyset (seek) 방식으로 페이징 검색합니다.
+		 * <p> Pagination의 정렬 조건과 cursor로 seek 조건을 구축하고, 한 건 많이 가져와 다음 페이지 유무를 판정합니다.
+		 * 총 건수는 산출하지 않습니다.
+		 */
+		private <T> PagingList<T> findKeyset(OrmCriteria<T> criteria, Function<CriteriaQuery<?>, CriteriaQuery<?>> extension,
+											 final Pagination page) {
+			criteria.keyset(page.getSort(), page.getCursor());
+			TypedQuery<T> query = query(criteria.result(extension));
+			if (0 < page.getSize()) query.setMaxResults(page.getSize() + 1);
+			List<T> list = read(query::getResultList);
+			String next = null;
+			if (0 < page.getSize() && page.getSize() < list.size()) {
+				list = new ArrayList<>(list.subList(0, page.getSize()));
+				next = criteria.keysetToken(list.get(list.size() - 1));
+			}
+			return new PagingList<>(list, new Pagination(page, -1L), next);
+		}
+
+		/**
+		 * 컴파일 완료 Criteria에서 검색합니다.
+		 * <p> 같은 형태 (유효한 인수 이름의 조합)의 두 번째 이후 호출은 Criteria 구축과 JPQL 변환을 생략합니다.
+		 * <p> args의 키는 OrmCriteria#*Param에 지정한 인수 이름입니다. (OrmPreparedQuery 참조)
+		 */
+		public <T> List<T> find(final OrmPreparedQuery<T> prepared, final Map<String, Object> args) {
+			return read(() -> prepare(prepared, args).getResultList());
+		}
+
+		/** 컴파일 완료 Criteria에서 한 건 가져옵니다. */
+		public <T> Optional<T> get(final OrmPreparedQuery<T> prepared, final Map<String, Object> args) {
+			return find(prepared, args).stream().findFirst();
+		}
+
+		/** 컴파일 완료 Criteria에서 한 건 가져옵니다. (존재하지 않을 때는 ValidationException) */
+		public <T> T load(final OrmPreparedQuery<T> prepared, final Map<String, Object> args) {
+			return get(prepared, args).orElseThrow(() -> new ValidationException(ErrorKeys.EntityNotFound));
+		}
+
+		private <T> TypedQuery<T> prepare(final OrmPreparedQuery<T> prepared, final Map<String, Object> args) {
+			Map<String, Object> binds = args != null ? args : Collections.emptyMap();
+			String key = keyPrefix() + prepared.shape(binds);
+			CompiledQuery compiled = queryCache.map(cache -> cache.get(key, () -> compile(prepared, binds)))
+					.orElseGet(() -> compile(prepared, binds));
+			TypedQuery<T> query = query(em.createQuery(compiled.getQlString(), prepared.getEntityClass()));
+			compiled.getConstants().forEach(query::setParameter);
+			compiled.getParams().forEach((name, converter) -> query.setParameter(name, converter.apply(binds.get(name))));
+			return query;
+		}
+
+		/** Criteria를 조립하여 JPQL과 형태에 포함된 상수 인수를 꺼냅니다. */
+		private <T> CompiledQuery compile(final OrmPreparedQuery<T> prepared, final Map<String, Object> binds) {
+			OrmCriteria<T> criteria = OrmCriteria.of(em, prepared.getEntityClass(), prepared.getAlias(), binds);
+			TypedQuery<T> query = em.createQuery(prepared.getFunc().apply(criteria));
+			HibernateQuery bound = query.unwrap(HibernateQuery.class);
+			Map<String, Object> constants = new HashMap<>();
+			for (Parameter<?> param : bound.getParameters()) {
+				if (param.getName() != null && !criteria.params().containsKey(param.getName())) {
+					constants.put(param.getName(), bound.getParameterValue(param));
+				}
+			}
+			return new CompiledQuery(query.unwrap(org.hibernate.Query.class).getQueryString(), constants, criteria.params());
 		}
 
 		/**
@@ -190,7 +306,7 @@ public class OrmTemplate {
 		 */
 		@SuppressWarnings("unchecked")
 		public <T> List<T> find(final String qlString, final Object... args) {
-			return bindArgs(em.createQuery(qlString), args).getResultList();
+			return read(() -> bindArgs(em.createQuery(qlString), args).getResultList());
 		}
 
 		/**
@@ -202,9 +318,8 @@ public class OrmTemplate {
 		 */
 		@SuppressWarnings("unchecked")
 		public <T> PagingList<T> find(final String qlString, final Pagination page, final Object... args) {
-			long total = page.isIgnoreTotal() ? -1L : load(QueryUtils.createCountQueryFor(qlString), args);
-			List<T> list = bindArgs(em.createQuery(qlString), args, page).getResultList();
-			return new PagingList<>(list, new Pagination(page, total));
+			long total = total(page, () -> countKey("ql", qlString, args), () -> load(QueryUtils.createCountQueryFor(qlString), args), Optional::empty);
+			return paging(bindArgs(em.createQuery(qlString), args), page, total);
 		}
 
 		/**
@@ -234,7 +349,7 @@ public class OrmTemplate {
 		 */
 		@SuppressWarnings("unchecked")
 		public <T> List<T> findNamed(final String name, final Object... args) {
-			return bindArgs(em.createNamedQuery(name), args).getResultList();
+			return read(() -> bindArgs(em.createNamedQuery(name), args).getResultList());
 		}
 
 		/**
@@ -245,9 +360,8 @@ public class OrmTemplate {
 		 */
 		@SuppressWarnings("unchecked")
 		public <T> PagingList<T> findNamed(final String name, final String nameCount, final Pagination page, final Map<String, Object> args) {
-			long total = page.isIgnoreTotal() ? -1L : loadNamed(nameCount, args);
-			List<T> list = bindArgs(em.createNamedQuery(name), page, args).getResultList();
-			return new PagingList<>(list, new Pagination(page, total));
+			long total = total(page, () -> countKey("named", nameCount, args), () -> loadNamed(nameCount, args), Optional::empty);
+			return paging(bindArgs(em.createNamedQuery(name), args), page, total);
 		}
 
 		/**
@@ -257,7 +371,7 @@ public class OrmTemplate {
 		 */
 		@SuppressWarnings("unchecked")
 		public <T> List<T> findBySql(final String sql, final Object... args) {
-			return bindArgs(em.createNativeQuery(sql), args).getResultList();
+			return read(() -> bindArgs(em.createNativeQuery(sql), args).getResultList());
 		}
 
 		/**
@@ -266,7 +380,7 @@ public class OrmTemplate {
 		 */
 		@SuppressWarnings("unchecked")
 		public <T> List<T> findBySql(String sql, Class<T> clazz, final Object... args) {
-			return bindArgs(em.createNativeQuery(sql, clazz), args).getResultList();
+			return read(() -> bindArgs(em.createNativeQuery(sql, clazz), args).getResultList());
 		}
 
 		/**
@@ -276,8 +390,8 @@ public class OrmTemplate {
 		 */
 		@SuppressWarnings("unchecked")
 		public <T> PagingList<T> findBySql(String sql, String sqlCount, final Pagination page, final Object... args) {
-			long total = page.isIgnoreTotal() ? -1L : findBySql(sqlCount, args).stream().findFirst().map(v -> Long.parseLong(v.toString())).orElse(0L);
-			return new PagingList<T>(bindArgs(em.createNativeQuery(sql), page, args).getResultList(), new Pagination(page, total));
+			long total = total(page, () -> countKey("sql", sqlCount, args), () -> countBySql(sqlCount, args), Optional::empty);
+			return paging(bindArgs(em.createNativeQuery(sql), args), page, total);
 		}
 
 		/**
@@ -287,8 +401,249 @@ public class OrmTemplate {
 		 */
 		@SuppressWarnings("unchecked")
 		public <T> PagingList<T> findBySql(String sql, String sqlCount, Class<T> clazz, final Pagination page, final Object... args) {
-			long total = page.isIgnoreTotal() ? -1L : findBySql(sqlCount, args).stream().findFirst().map(v -> Long.parseLong(v.toString())).orElse(0L);
-			return new PagingList<T>(bindArgs(em.createNativeQuery(sql, clazz), page, args).getResultList(), new Pagination(page, total));
+			long total = total(page, () -> countKey("sql", sqlCount, args), () -> countBySql(sqlCount, args), Optional::empty);
+			return paging(bindArgs(em.createNativeQuery(sql, clazz), args), page, total);
+		}
+
+		private long countBySql(String sqlCount, final Object... args) {
+			return findBySql(sqlCount, args).stream().findFirst().map(v -> Long.parseLong(v.toString())).orElse(0L);
+		}
+
+		/**
+		 * Pagination#countMode에 따라 총 건수를 산출합니다.
+		 * <p> 산출하지 않을 때는 -1. Estimated로 추정 건수를 얻을 수 없을 때는 Cached로, OrmCountCache 미등록시는 Exact로 취급합니다.
+		 */
+		private long total(final Pagination page, Supplier<String> key, Supplier<Long> exact, Supplier<Optional<Long>> estimate) {
+			CountMode mode = Optional.ofNullable(page.getCountMode()).orElse(CountMode.Exact);
+			if (page.isIgnoreTotal() || mode == CountMode.HasNext) {
+				return -1L;
+			}
+			if (mode == CountMode.Estimated) {
+				Optional<Long> estimated = estimate.get().filter(v -> 0 < v);
+				if (estimated.isPresent()) {
+					return estimated.get();
+				}
+			}
+			if (mode == CountMode.Exact) {
+				return exact.get();
+			}
+			return countCache.map(cache -> cache.get(key.get(), exact)).orElseGet(exact);
+		}
+
+		/**
+		 * 페이지 범위를 지정하여 검색합니다. (CountMode#HasNext 지정시는 한 건 많이 가져와 다음 페이지 유무를 판정)
+		 * <p> 총 건수 0으로 검색을 생략하는 것은 정확한 건수일 때만입니다. 캐시 / 추정 건수는 오래되었을 수 있으므로 항상 검색하며,
+		 * 실제로 가져온 건수보다 작을 때는 가져온 범위까지 보정합니다.
+		 */
+		@SuppressWarnings("unchecked")
+		private <T> PagingList<T> paging(final Query query, final Pagination page, long total) {
+			boolean exactCount = isExactCount(page);
+			if (total == 0 && exactCount) return new PagingList<>(new ArrayList<>(), new Pagination(page, 0));
+			boolean hasNextMode = !page.isIgnoreTotal() && page.getCountMode() == CountMode.HasNext;
+			if (0 < page.getPage()) query.setFirstResult(page.getFirstResult());
+			if (0 < page.getSize()) query.setMaxResults(hasNextMode ? page.getSize() + 1 : page.getSize());
+			List<T> list = read(query::getResultList);
+			if (!hasNextMode) {
+				if (0 <= total && !exactCount) {
+					total = Math.max(total, (0 < page.getPage() ? page.getFirstResult() : 0L) + list.size());
+				}
+				return new PagingList<>(list, new Pagination(page, total));
+			}
+			boolean hasNext = 0 < page.getSize() && page.getSize() < list.size();
+			if (hasNext) {
+				list = new ArrayList<>(list.subList(0, page.getSize()));
+			}
+			return new PagingList<>(list, new Pagination(page, -1L), null, hasNext);
+		}
+
+		/** 총 건수가 정확한 건수 (CountMode#Exact 또는 OrmCountCache 미등록)일 때 true */
+		private boolean isExactCount(final Pagination page) {
+			CountMode mode = Optional.ofNullable(page.getCountMode()).orElse(CountMode.Exact);
+			return mode == CountMode.Exact || !countCache.isPresent();
+		}
+
+		/** 건수 캐시의 키 (정규화한 쿼리와 인수 값)를 반환합니다. */
+		private String countKey(String type, String qlString, final Object... args) {
+			StringBuilder key = new StringBuilder(keyPrefix()).append(type).append(':')
+					.append(qlString.trim().replaceAll("\\s+", " "));
+			if (args != null) {
+				for (Object arg : args) {
+					key.append('|').append(argKey(arg));
+				}
+			}
+			return key.toString();
+		}
+
+		private String countKey(final Query query) {
+			Query bound = query.unwrap(HibernateQuery.class);
+			StringBuilder key = new StringBuilder(keyPrefix()).append("criteria:")
+					.append(query.unwrap(org.hibernate.Query.class).getQueryString());
+			bound.getParameters().stream()
+					.sorted(Comparator.comparing(p -> String.valueOf(p.getName() != null ? p.getName() : p.getPosition())))
+					.forEach(p -> key.append('|').append(p.getName()).append('=').append(argKey(bound.getParameterValue(p))));
+			return key.toString();
+		}
+
+		/** 데이터 소스 (EntityManagerFactory) 단위로 키를 구분합니다. */
+		private String keyPrefix() {
+			return Integer.toHexString(System.identityHashCode(em.getEntityManagerFactory())) + ":";
+		}
+
+		private String argKey(Object arg) {
+			if (arg instanceof Map<?, ?>) {
+				return new TreeMap<>((Map<?, ?>) arg).toString();
+			} else if (arg != null && arg.getClass().isArray()) {
+				return Arrays.deepToString(new Object[] { arg });
+			}
+			return String.valueOf(arg);
+		}
+
+		/**
+		 * Criteria에서 스트리밍 검색합니다.
+		 * <p> 결과를 모두 메모리에 올리지 않고 fetch size 단위로 DB에서 읽으며, 소비된 행은 세션 캐시에서 분리합니다.
+		 * 대량 데이터의 출력 등에서 이용하십시오. (fetch size는 OrmQueryMetadata#fetchSize로 변경할 수 있습니다)
+		 * <p> 반환된 Stream은 트랜잭션 안에서 소비하고 반드시 close 하십시오. (try-with-resources 또는 #forEach를 이용)
+		 * <p> 엔티티는 읽기 전용으로 취득되므로 변경 내용은 반영되지 않습니다.
+		 */
+		public <T> Stream<T> stream(final CriteriaQuery<T> criteria) {
+			return scroll(query(criteria));
+		}
+
+		public <T> Stream<T> stream(Class<T> entityClass, Function<OrmCriteria<T>, CriteriaQuery<T>> func) {
+			return stream(func.apply(OrmCriteria.of(em, entityClass)));
+		}
+
+		/** 대상 Entity를 모두 스트리밍 취득합니다. */
+		public <T> Stream<T> streamAll(final Class<T> entityClass) {
+			return stream(OrmCriteria.of(em, entityClass).result());
+		}
+
+		/**
+		 * JPQL에서 스트리밍 검색합니다.
+		 * <p> args에 Map를 지정했을 때는 명명 된 인수로 취급합니다. (Map의 키는 문자열을 지정하십시오)
+		 */
+		public <T> Stream<T> stream(final String qlString, final Object... args) {
+			return scroll(bindArgs(em.createQuery(qlString), args));
+		}
+
+		/**
+		 * 정의 된 JPQL에서 스트리밍 검색합니다.
+		 * <p> 사전 name에 맞는 @NamedQuery 정의가 필요합니다.
+		 */
+		public <T> Stream<T> streamNamed(final String name, final Object... args) {
+			return scroll(bindArgs(em.createNamedQuery(name), args));
+		}
+
+		/**
+		 * SQL에서 스트리밍 검색합니다.
+		 * <p> 검색 결과로 select 값 배열을 반환합니다.
+		 */
+		public <T> Stream<T> streamBySql(final String sql, final Object... args) {
+			return scroll(bindArgs(em.createNativeQuery(sql), args));
+		}
+
+		public <T> Stream<T> streamBySql(final String sql, Class<T> clazz, final Object... args) {
+			return scroll(bindArgs(em.createNativeQuery(sql, clazz), args));
+		}
+
+		/** Criteria에서 검색한 결과를 한 건씩 처리합니다. (#stream 참조) */
+		public <T> void forEach(final CriteriaQuery<T> criteria, final Consumer<T> consumer) {
+			try (Stream<T> stream = stream(criteria)) {
+				stream.forEach(consumer);
+			}
+		}
+
+		/** 대상 Entity를 모두 한 건씩 처리합니다. (#stream 참조) */
+		public <T> void forEachAll(final Class<T> entityClass, final Consumer<T> consumer) {
+			try (Stream<T> stream = streamAll(entityClass)) {
+				stream.forEach(consumer);
+			}
+		}
+
+		/** JPQL에서 검색한 결과를 한 건씩 처리합니다. (#stream 참조) */
+		public <T> void forEach(final String qlString, final Consumer<T> consumer, final Object... args) {
+			try (Stream<T> stream = stream(qlString, args)) {
+				stream.forEach(consumer);
+			}
+		}
+
+		/** 정의 된 JPQL에서 검색한 결과를 한 건씩 처리합니다. (#stream 참조) */
+		public <T> void forEachNamed(final String name, final Consumer<T> consumer, final Object... args) {
+			try (Stream<T> stream = streamNamed(name, args)) {
+				stream.forEach(consumer);
+			}
+		}
+
+		/** SQL에서 검색한 결과를 한 건씩 처리합니다. (#stream 참조) */
+		public <T> void forEachBySql(final String sql, final Consumer<T> consumer, final Object... args) {
+			try (Stream<T> stream = streamBySql(sql, args)) {
+				stream.forEach(consumer);
+			}
+		}
+
+		private <T> Stream<T> scroll(final Query query) {
+			int fetchSize = metadata.flatMap(OrmQueryMetadata::fetchSize).orElse(DefaultFetchSize);
+			ScrollableResults results = read(() -> query.unwrap(org.hibernate.Query.class)
+					.setFetchSize(fetchSize)
+					.setReadOnly(true)
+					.scroll(ScrollMode.FORWARD_ONLY));
+			ScrollIterator<T> iterator = new ScrollIterator<>(em.unwrap(Session.class), results);
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+					.onClose(iterator::close);
+		}
+
+		/** OrmQueryMetadata#replica 지정시는 레플리카로 검색합니다. */
+		private <R> R read(Supplier<R> callable) {
+			return metadata.map(OrmQueryMetadata::replica).orElse(false) ? OrmRoutingDataSource.replica(callable) : callable.get();
+		}
+
+		/**
+		 * ScrollableResults를 순회하는 Iterator.
+		 * <p> 다음 행으로 진행할 때 직전에 반환한 엔티티를 세션 캐시에서 분리합니다.
+		 */
+		private static class ScrollIterator<T> implements Iterator<T> {
+			private final Session session;
+			private final ScrollableResults results;
+			private Object current;
+			private Boolean hasNext;
+
+			ScrollIterator(Session session, ScrollableResults results) {
+				this.session = session;
+				this.results = results;
+			}
+
+			@Override
+			public boolean hasNext() {
+				if (hasNext == null) {
+					evict();
+					hasNext = results.next();
+				}
+				return hasNext;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				hasNext = null;
+				Object[] row = results.get();
+				current = row.length == 1 ? row[0] : row;
+				return (T) current;
+			}
+
+			private void evict() {
+				if (current != null && !(current instanceof Object[]) && session.contains(current)) {
+					session.evict(current);
+				}
+				current = null;
+			}
+
+			void close() {
+				evict();
+				results.close();
+			}
 		}
 
 		/**
@@ -330,6 +685,7 @@ public class OrmTemplate {
 		}
 
 		public Query bindArgs(final Query query, final Pagination page, final Object... args) {
+			metadata.ifPresent(meta -> meta.hints().forEach((k, v) -> query.setHint(k, v)));
 			Optional.ofNullable(page).ifPresent((pg) -> {
 				if (page.getPage() > 0)
 					query.setFirstResult(page.getFirstResult());
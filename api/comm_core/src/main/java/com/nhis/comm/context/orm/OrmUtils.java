@@ -1,10 +1,20 @@
 package com.nhis.comm.context.orm;
 
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.Oracle8iDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 
 import javax.persistence.EntityManager;
 import java.io.Serializable;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Created by sewoo on 2016. 12. 28..
@@ -17,4 +27,37 @@ public abstract class OrmUtils {
 	public static <T> JpaEntityInformation<T, Serializable> entityInformation(EntityManager em, Class<T> clazz) {
 		return (JpaEntityInformation<T, Serializable>) JpaEntityInformationSupport.getEntityInformation(clazz, em);
 	}
+
+	/**
+	 * 지정된 엔티티 테이블의 추정 건수를 DB 통계 정보에서 반환합니다.
+	 * <p> 대응하지 않는 DB나 통계 정보가 수집되지 않았을 때는 empty.
+	 */
+	public static Optional<Long> estimateCount(EntityManager em, Class<?> clazz) {
+		SessionFactoryImplementor sf = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+		EntityPersister persister = sf.getEntityPersister(clazz.getName());
+		if (!(persister instanceof AbstractEntityPersister)) {
+			return Optional.empty();
+		}
+		String qualified = ((AbstractEntityPersister) persister).getTableName();
+		String table = qualified.substring(qualified.lastIndexOf('.') + 1);
+		return statisticsSql(sf.getDialect()).flatMap(sql -> {
+			List<?> list = em.createNativeQuery(sql).setParameter(1, table).getResultList();
+			return list.stream().findFirst()
+					.filter(v -> v instanceof Number)
+					.map(v -> ((Number) v).longValue());
+		});
+	}
+
+	private static Optional<String> statisticsSql(Dialect dialect) {
+		if (dialect instanceof Oracle8iDialect) {
+			return Optional.of("select num_rows from user_tables where table_name = upper(?1)");
+		} else if (dialect instanceof H2Dialect) {
+			return Optional.of("select row_count_estimate from information_schema.tables where upper(table_name) = upper(?1)");
+		} else if (dialect instanceof PostgreSQL81Dialect) {
+			return Optional.of("select cast(reltuples as bigint) from pg_class where relkind = 'r' and relname = lower(?1)");
+		} else if (dialect instanceof MySQLDialect) {
+			return Optional.of("select table_rows from information_schema.tables where table_schema = database() and table_name = ?1");
+		}
+		return Optional.empty();
+	}
 }
@@ -29,25 +29,31 @@ public class Pagination implements Dto {
 	private boolean ignoreTotal;
 	/** 정렬 조건 */
 	private Sort sort;
+	/** keyset (seek) 페이징 유무. (true일 때는 page 대신 cursor로 위치를 지정합니다) */
+	private boolean keyset;
+	/** keyset 페이징시 직전 페이지에서 반환된 계속 토큰 (PagingList#next). 첫 페이지는 null */
+	private String cursor;
+	/** 총 건수 산출 방법 */
+	private CountMode countMode;
 
 	public Pagination() {
 		this(1);
 	}
 
 	public Pagination(int page) {
-		this(page, DefaultSize, null, false, new Sort());
+		this(page, DefaultSize, null, false, new Sort(), false, null, CountMode.Exact);
 	}
 
 	public Pagination(int page, int size) {
-		this(page, size, null, false, new Sort());
+		this(page, size, null, false, new Sort(), false, null, CountMode.Exact);
 	}
 
 	public Pagination(int page, int size, final Sort sort) {
-		this(page, size, null, false, sort);
+		this(page, size, null, false, sort, false, null, CountMode.Exact);
 	}
 
 	public Pagination(final Pagination req, long total) {
-		this(req.getPage(), req.getSize(), total, false, req.getSort());
+		this(req.getPage(), req.getSize(), total, false, req.getSort(), req.isKeyset(), req.getCursor(), req.getCountMode());
 	}
 
 	/** 계산 산출을 비활성화합니다. */
@@ -56,6 +62,27 @@ public class Pagination implements Dto {
 		return this;
 	}
 
+	/**
+	 * 총 건수 산출 방법을 지정합니다.
+	 * <p> 페이지 이동마다 count 쿼리를 발행하고 싶지 않을 때는 Cached / Estimated / HasNext를 지정하십시오.
+	 */
+	public Pagination count(CountMode countMode) {
+		this.countMode = countMode;
+		return this;
+	}
+
+	/**
+	 * keyset (seek) 페이징을 유효하게 합니다.
+	 * <p> OFFSET 대신 직전 페이지 마지막 행의 정렬 키로 범위를 좁히므로 깊은 페이지에서도 검색 비용이 일정합니다.
+	 * 총 건수는 산출되지 않습니다.
+	 * @param cursor 직전 페이지의 PagingList#next. 첫 페이지는 null
+	 */
+	public Pagination keyset(String cursor) {
+		this.keyset = true;
+		this.cursor = cursor;
+		return this;
+	}
+
 	/** 정렬 지정이 지정되지 않은 경우에는 준 정렬 조건보다 우선합니다. */
 	public Pagination sortIfEmpty(Sort.SortOrder... orders) {
 		if (sort != null)
@@ -74,5 +101,16 @@ public class Pagination implements Dto {
 		return (page - 1) * size;
 	}
 
+	/** 총 건수 산출 방법을 표현합니다. */
+	public static enum CountMode {
+		/** 매번 count 쿼리로 정확한 건수를 산출합니다. */
+		Exact,
+		/** 쿼리와 인수 단위로 건수를 일정 시간 (OrmCountCache#ttlMillis) 재이용합니다. 갱신 직후에는 오차가 생깁니다. */
+		Cached,
+		/** 조건 없는 검색에 한해 DB 통계 정보의 추정 건수를 이용합니다. (이용할 수 없을 때는 Cached) */
+		Estimated,
+		/** 건수를 산출하지 않고 한 건 많이 가져와 다음 페이지 유무 (PagingList#hasNext)만 판정합니다. */
+		HasNext;
+	}
 
 }
@@ -18,5 +18,29 @@ public class PagingList<T> implements Dto {
 
 	private List<T> list;
 	private Pagination page;
+	/** keyset 페이징시 다음 페이지를 얻기 위한 계속 토큰 (다음 페이지가 없을 때는 null) */
+	private String next;
+	/** 다음 페이지가 존재할 때는 true */
+	private boolean hasNext;
+
+	public PagingList(List<T> list, Pagination page) {
+		this(list, page, null);
+	}
+
+	public PagingList(List<T> list, Pagination page, String next) {
+		this(list, page, next, next != null || hasNextPage(page));
+	}
+
+	public PagingList(List<T> list, Pagination page, String next, boolean hasNext) {
+		this.list = list;
+		this.page = page;
+		this.next = next;
+		this.hasNext = hasNext;
+	}
+
+	private static boolean hasNextPage(Pagination page) {
+		return page != null && page.getTotal() != null && 0 < page.getSize()
+				&& (long) page.getPage() * page.getSize() < page.getTotal();
+	}
 
 }
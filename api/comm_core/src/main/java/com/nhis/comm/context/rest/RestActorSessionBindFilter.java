@@ -5,9 +5,11 @@ import java.util.Optional;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
-import org.springframework.web.filter.GenericFilterBean;
+import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.nhis.comm.context.actor.Actor;
 import com.nhis.comm.context.actor.ActorSession;
 import com.nhis.comm.context.rest.RestActorSessionInterceptor.RestActorSessionConverter;
 
@@ -15,9 +17,13 @@ import com.nhis.comm.context.rest.RestActorSessionInterceptor.RestActorSessionCo
 /**
  * 프로세스간에 ActorSession 을 선점하는 Filter。 (받는측)
  * <p>미리 요청하는 프로세스 RestActorSessionInterceptor을 적용해야 합니다。
- * <p>비동기 Servlet 을 이용할경우 이용이 불가능。( 별도 유사한 구조를 코딩 해야 합니다. )
+ * <p>비동기 Servlet 의 재디스패치 (DeferredResult / Callable 의 완료시)에서도 같은 이용자를 다시 적용합니다。
+ * 비동기 처리 자체를 실행하는 스레드에는 ActorSession#wrap 또는 AsyncHandler 로 인계하십시오。
  */
-public class RestActorSessionBindFilter extends GenericFilterBean {
+public class RestActorSessionBindFilter extends OncePerRequestFilter {
+
+    /** 변환한 이용자를 보관하는 요청 속성 */
+    public static final String AttrActor = RestActorSessionBindFilter.class.getName() + ".actor";
 
     private final ActorSession session;
 
@@ -26,16 +32,31 @@ public class RestActorSessionBindFilter extends GenericFilterBean {
     }
 
     @Override
-    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
-            throws IOException, ServletException {
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
         try {
-            String actorStr = ((HttpServletRequest)request).getHeader(RestActorSessionInterceptor.AttrActorSession);
-            Optional.ofNullable(actorStr).ifPresent((str) ->
-                    session.bind(RestActorSessionConverter.convert(str)));
+            actor(request).ifPresent(session::bind);
             chain.doFilter(request, response);
         } finally {
             session.unbind();
         }
     }
-    
-}
\ No newline at end of file
+
+    private Optional<Actor> actor(HttpServletRequest request) {
+        Actor actor = (Actor) request.getAttribute(AttrActor);
+        if (actor != null) {
+            return Optional.of(actor);
+        }
+        String actorStr = request.getHeader(RestActorSessionInterceptor.AttrActorSession);
+        Optional<Actor> converted = Optional.ofNullable(actorStr).map(RestActorSessionConverter::convert);
+        converted.ifPresent(v -> request.setAttribute(AttrActor, v));
+        return converted;
+    }
+
+    /** 비동기 Servlet 의 재디스패치에서도 이용자를 적용합니다。 */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+}
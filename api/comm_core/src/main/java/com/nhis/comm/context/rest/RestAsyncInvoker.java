@@ -0,0 +1,87 @@
+package com.nhis.comm.context.rest;
+
+import com.nhis.comm.context.Dto;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Created by sewoo on 2017. 2. 24..
+ * RestInvoker 의 요청을 비동기로 실행하고 CompletableFuture 를 반환합니다。
+ * <p>요청은 executor 에서 실행됩니다。이용자 (ActorSession)를 인계하는 Executor (AsyncHandler#executor)를 지정하십시오。
+ * executor 가 요청을 받지 않았을 때 (RejectedExecutionException)는 그 예외로 실패한 CompletableFuture 를 반환합니다。
+ * <p>여러 서비스의 요청을 병렬로 실행하고 모을 때는 RestScatter 를 이용하십시오。
+ */
+public class RestAsyncInvoker {
+
+	private final RestInvoker invoker;
+	private final Executor executor;
+
+	/** construct (생성자) */
+	public RestAsyncInvoker(RestInvoker invoker, Executor executor) {
+		this.invoker = invoker;
+		this.executor = executor;
+	}
+
+	/** RestInvoker 를 이용한 임의의 요청을 비동기로 실행합니다。 */
+	public <T> CompletableFuture<T> supply(Function<RestInvoker, T> call) {
+		return supplyAsync(() -> call.apply(invoker), executor);
+	}
+
+	/** CompletableFuture#supplyAsync 와 같지만 executor 가 받지 않았을 때는 던지지 않고 실패한 CompletableFuture 를 반환합니다。 */
+	static <T> CompletableFuture<T> supplyAsync(Supplier<T> call, Executor executor) {
+		try {
+			return CompletableFuture.supplyAsync(call, executor);
+		} catch (RejectedExecutionException e) {
+			CompletableFuture<T> rejected = new CompletableFuture<>();
+			rejected.completeExceptionally(e);
+			return rejected;
+		}
+	}
+
+	/** API 에대해 GET 요청합니다。(RestInvoker#get 참조) */
+	public <T> CompletableFuture<T> get(String path, Class<T> responseType, Object... variables) {
+		return supply(v -> v.get(path, responseType, variables));
+	}
+
+	public <T> CompletableFuture<T> get(String path, ParameterizedTypeReference<T> responseType, Object... variables) {
+		return supply(v -> v.get(path, responseType, variables));
+	}
+
+	public <T> CompletableFuture<T> get(String path, Class<T> responseType, Dto request, Object... variables) {
+		return supply(v -> v.get(path, responseType, request, variables));
+	}
+
+	public <T> CompletableFuture<T> get(String path, ParameterizedTypeReference<T> responseType, Dto request, Object... variables) {
+		return supply(v -> v.get(path, responseType, request, variables));
+	}
+
+	/** API 에대해 GET 요청합니다。(RestInvoker#getEntity 참조) */
+	public <T> CompletableFuture<ResponseEntity<T>> getEntity(String path, Class<T> responseType, Object... variables) {
+		return supply(v -> v.getEntity(path, responseType, variables));
+	}
+
+	/** API 에대해 POST 요청합니다。(RestInvoker#post 참조) */
+	public <T> CompletableFuture<T> post(String path, Class<T> responseType, Dto request, Object... variables) {
+		return supply(v -> v.post(path, responseType, request, variables));
+	}
+
+	public <T> CompletableFuture<T> post(String path, ParameterizedTypeReference<T> responseType, Dto request, Object... variables) {
+		return supply(v -> v.post(path, responseType, request, variables));
+	}
+
+	/** API 에대해 POST 요청합니다。(RestInvoker#postForm 참조) */
+	public <T> CompletableFuture<T> postForm(String path, Class<T> responseType, Dto request, Object... variables) {
+		return supply(v -> v.postForm(path, responseType, request, variables));
+	}
+
+	public <T> CompletableFuture<T> postForm(String path, ParameterizedTypeReference<T> responseType, Dto request, Object... variables) {
+		return supply(v -> v.postForm(path, responseType, request, variables));
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.nhis.comm.context.rest;
+
+import lombok.Setter;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sewoo on 2017. 2. 24..
+ * 서비스간 요청 (RestInvoker)에 이용하는 커넥션 풀 부착 HTTP 클라이언트를 생성합니다。
+ * <p>@LoadBalanced RestTemplate 에는 모든 싱글톤의 생성 후에 자동 적용됩니다。그 외의 RestTemplate 에는 requestFactory 를 설정하십시오。
+ * (RestTemplateCustomizer 빈을 정의하면 Spring Cloud 가 부하 분산의 RestTemplateCustomizer 를 등록하지 않으므로 이용하지 않습니다)
+ * <p>커넥션은 서버의 Keep-Alive 지정 (최대 keepAliveMillis) 동안 재이용하며, idleEvictMillis 이상 미사용인 커넥션은 백그라운드에서 닫습니다。
+ * <p>쿠키는 관리하지 않습니다。(클라이언트를 모든 이용자가 공유하기 때문)
+ * <p>풀의 상태는 actuator 의 metrics (rest.pool.* / rest.pool.route.[호스트:포트].*)로 공개됩니다。
+ */
+@Setter
+@ConfigurationProperties(prefix = "extension.rest.client")
+public class RestHttpClientFactory implements SmartInitializingSingleton, PublicMetrics {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired(required = false)
+	@LoadBalanced
+	private List<RestTemplate> restTemplates = Collections.emptyList();
+
+	/** 전체의 최대 커넥션 수 */
+	private int maxTotal = 200;
+	/** 접속처 (호스트:포트)별 최대 커넥션 수 */
+	private int maxPerRoute = 50;
+	/** 서버가 Keep-Alive 를 지정하지 않았을 때의 커넥션 유지 시간 (msec). 서버 지정도 이 값으로 제한합니다。 */
+	private long keepAliveMillis = 30000L;
+	/** 미사용 커넥션을 닫기까지의 시간 (msec) */
+	private long idleEvictMillis = 30000L;
+	/** 재이용 전에 커넥션을 검증하는 미사용 시간 (msec) */
+	private int validateAfterInactivityMillis = 2000;
+	/** 접속 타임아웃 (msec) */
+	private int connectTimeout = 2000;
+	/** 읽기 타임아웃 (msec) */
+	private int readTimeout = 10000;
+	/** 풀에서 커넥션을 취득하는 대기 시간 (msec) */
+	private int acquireTimeout = 1000;
+
+	private PoolingHttpClientConnectionManager manager;
+	private CloseableHttpClient client;
+	private HttpComponentsClientHttpRequestFactory requestFactory;
+
+	@PostConstruct
+	public void start() {
+		manager = new PoolingHttpClientConnectionManager();
+		manager.setMaxTotal(maxTotal);
+		manager.setDefaultMaxPerRoute(maxPerRoute);
+		manager.setValidateAfterInactivity(validateAfterInactivityMillis);
+		client = HttpClientBuilder.create()
+				.setConnectionManager(manager)
+				.setDefaultRequestConfig(RequestConfig.custom()
+						.setConnectTimeout(connectTimeout)
+						.setSocketTimeout(readTimeout)
+						.setConnectionRequestTimeout(acquireTimeout)
+						.build())
+				.setKeepAliveStrategy((response, context) -> {
+					long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+					return 0 < duration ? Math.min(duration, keepAliveMillis) : keepAliveMillis;
+				})
+				.evictExpiredConnections()
+				.evictIdleConnections(idleEvictMillis, TimeUnit.MILLISECONDS)
+				.disableCookieManagement()
+				.build();
+		requestFactory = new HttpComponentsClientHttpRequestFactory(client);
+	}
+
+	@PreDestroy
+	public void stop() {
+		try {
+			client.close();
+		} catch (IOException e) {
+			logger.warn("HTTP 클라이언트를 닫을 수 없습니다. [{}]", e.getMessage());
+		}
+	}
+
+	/** 커넥션 풀 부착 ClientHttpRequestFactory 를 반환합니다。 */
+	public ClientHttpRequestFactory requestFactory() {
+		return requestFactory;
+	}
+
+	/** @LoadBalanced RestTemplate 에 커넥션 풀을 적용합니다。(부하 분산의 인터셉터는 그대로 유지됩니다) */
+	@Override
+	public void afterSingletonsInstantiated() {
+		restTemplates.forEach(template -> template.setRequestFactory(requestFactory));
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> metrics = new ArrayList<>();
+		stats(metrics, "rest.pool.", manager.getTotalStats());
+		for (HttpRoute route : manager.getRoutes()) {
+			stats(metrics, "rest.pool.route." + route.getTargetHost().toHostString() + ".", manager.getStats(route));
+		}
+		return metrics;
+	}
+
+	private void stats(List<Metric<?>> metrics, String prefix, PoolStats stats) {
+		metrics.add(new Metric<>(prefix + "leased", stats.getLeased()));
+		metrics.add(new Metric<>(prefix + "available", stats.getAvailable()));
+		metrics.add(new Metric<>(prefix + "pending", stats.getPending()));
+		metrics.add(new Metric<>(prefix + "max", stats.getMax()));
+	}
+
+}
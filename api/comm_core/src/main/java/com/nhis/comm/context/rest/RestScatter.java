@@ -0,0 +1,130 @@
+package com.nhis.comm.context.rest;
+
+import com.nhis.comm.InvocationException;
+import com.nhis.comm.context.async.AsyncHandler;
+import org.springframework.util.Assert;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Created by sewoo on 2017. 2. 24..
+ * 여러 서비스에 대한 요청을 병렬로 실행하고 결과를 모읍니다。(scatter-gather)
+ * <p>각 요청은 키와 타임아웃을 가지고 등록합니다。전체의 처리 시간은 가장 느린 요청 (최대 타임아웃)이 됩니다。
+ * <p>실패 / 타임아웃된 요청이 있어도 다른 요청의 결과는 Gathered 로 참조할 수 있습니다。
+ * 타임아웃된 요청의 HTTP 통신은 중단되지 않으므로 읽기 타임아웃을 함께 설정하십시오。
+ * <pre>
+ * Gathered result = new RestScatter(async, 1000)
+ *     .add("member", () -&gt; memberInvoker.get("/member/{id}", Member.class, id))
+ *     .add("point", 300, pointAsyncInvoker.get("/point/{id}", Point.class, id))
+ *     .gather();
+ * </pre>
+ */
+public class RestScatter {
+
+	private final AsyncHandler async;
+	/** 요청별 타임아웃을 지정하지 않았을 때의 타임아웃 (msec) */
+	private final long timeoutMillis;
+	private final Map<String, CompletableFuture<?>> calls = new LinkedHashMap<>();
+
+	public RestScatter(AsyncHandler async, long timeoutMillis) {
+		this.async = async;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * 요청을 등록합니다。요청은 등록시에 실행을 시작합니다。
+	 * <p>AsyncHandler 가 요청을 받지 않았을 때는 RejectedExecutionException 으로 실패한 요청이 됩니다。(Gathered#failed 참조)
+	 */
+	public <T> RestScatter add(String key, Supplier<T> call) {
+		return add(key, timeoutMillis, call);
+	}
+
+	public <T> RestScatter add(String key, long timeoutMillis, Supplier<T> call) {
+		return add(key, timeoutMillis, RestAsyncInvoker.supplyAsync(call, async.executor()));
+	}
+
+	/** 실행 중인 요청 (RestAsyncInvoker 등)을 등록합니다。 */
+	public RestScatter add(String key, CompletableFuture<?> future) {
+		return add(key, timeoutMillis, future);
+	}
+
+	public RestScatter add(String key, long timeoutMillis, CompletableFuture<?> future) {
+		Assert.isTrue(!calls.containsKey(key));
+		calls.put(key, async.within(future, timeoutMillis));
+		return this;
+	}
+
+	/** 모든 요청의 완료 (성공 / 실패 / 타임아웃)를 기다려 결과를 반환합니다。 */
+	public Gathered gather() {
+		return gatherAsync().join();
+	}
+
+	/** 모든 요청의 완료 (성공 / 실패 / 타임아웃)로 완료하는 CompletableFuture 를 반환합니다。 */
+	public CompletableFuture<Gathered> gatherAsync() {
+		Map<String, CompletableFuture<?>> targets = new LinkedHashMap<>(calls);
+		return CompletableFuture.allOf(targets.values().stream()
+				.map(v -> v.handle((r, e) -> null))
+				.toArray(CompletableFuture[]::new))
+				.thenApply(v -> new Gathered(targets));
+	}
+
+	/** 모은 요청의 결과를 표현합니다。 */
+	public static class Gathered {
+		private final Map<String, Object> results = new LinkedHashMap<>();
+		private final Map<String, Throwable> errors = new LinkedHashMap<>();
+
+		Gathered(Map<String, CompletableFuture<?>> calls) {
+			calls.forEach((key, future) -> {
+				try {
+					results.put(key, future.join());
+				} catch (CompletionException e) {
+					errors.put(key, e.getCause() != null ? e.getCause() : e);
+				} catch (RuntimeException e) {
+					errors.put(key, e);
+				}
+			});
+		}
+
+		/** 요청의 결과를 반환합니다。실패했을 때는 empty 를 반환합니다。 */
+		@SuppressWarnings("unchecked")
+		public <T> Optional<T> get(String key) {
+			return Optional.ofNullable((T) results.get(key));
+		}
+
+		/** 요청의 결과를 반환합니다。실패했을 때는 그 예외를 던집니다。 */
+		@SuppressWarnings("unchecked")
+		public <T> T load(String key) {
+			Assert.isTrue(results.containsKey(key) || errors.containsKey(key));
+			Throwable error = errors.get(key);
+			if (error instanceof RuntimeException) {
+				throw (RuntimeException) error;
+			} else if (error != null) {
+				throw new InvocationException(error);
+			}
+			return (T) results.get(key);
+		}
+
+		/** 요청의 실패 원인을 반환합니다。 */
+		public Optional<Throwable> error(String key) {
+			return Optional.ofNullable(errors.get(key));
+		}
+
+		/** 실패 / 타임아웃된 요청의 키를 반환합니다。 */
+		public Set<String> failed() {
+			return Collections.unmodifiableSet(errors.keySet());
+		}
+
+		/** 모든 요청이 성공했을 때 true */
+		public boolean isComplete() {
+			return errors.isEmpty();
+		}
+	}
+
+}
@@ -16,6 +16,7 @@ import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
@@ -24,6 +25,8 @@ import java.net.URLEncoder;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Supplier;
 
 /**
@@ -99,6 +102,26 @@ public class ControllerSupport {
 		return ResponseEntity.status(HttpStatus.OK).build();
 	}
 
+	/**
+	 * 비동기 처리의 반환값을 생성해 돌려 줍니다。
+	 * <p>요청 스레드는 완료를 기다리지 않고 반환됩니다。예외는 동기 처리와 같이 RestErrorAdvice로 처리됩니다。
+	 */
+	protected <T> DeferredResult<ResponseEntity<T>> resultAsync(CompletableFuture<T> future) {
+		DeferredResult<ResponseEntity<T>> result = new DeferredResult<>();
+		future.whenComplete((v, e) -> {
+			if (e != null) {
+				result.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+			} else {
+				result.setResult(ResponseEntity.status(HttpStatus.OK).body(v));
+			}
+		});
+		return result;
+	}
+
+	protected DeferredResult<ResponseEntity<Void>> resultEmptyAsync(CompletableFuture<?> future) {
+		return resultAsync(future.thenApply(v -> (Void) null));
+	}
+
 	/** 파일 업로드 정보(MultipartFile)를 ReportFile로 변환 합니다。 */
 	protected ReportFile uploadFile(final MultipartFile file) {
 		return uploadFile(file, (String[]) null);
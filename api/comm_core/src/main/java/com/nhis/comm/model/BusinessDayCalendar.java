@@ -0,0 +1,93 @@
+package com.nhis.comm.model;
+
+import com.nhis.comm.util.DateUtils;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Created by sewoo on 2017. 2. 17..
+ *
+ * 휴일 구분 / 연도 단위의 영업일 달력을 표현합니다.
+ * <p> 영업일의 비트 집합과 누적 건수를 미리 계산하므로 영업일 판정 / 건수 / n번째 영업일을 휴일 마스터에 접근하지 않고 O(1)로 반환합니다.
+ * <p> 생성 후에는 변경하지 않으므로 스레드 간에 공유할 수 있습니다.
+ */
+public class BusinessDayCalendar {
+	/** 휴일 구분 */
+	@Getter
+	private final String category;
+	/** 연도 */
+	@Getter
+	private final int year;
+	/** 영업일 (인덱스는 1월 1일부터의 일수) */
+	private final BitSet open;
+	/** 영업일의 누적 건수 (rank[i]는 인덱스 i 앞의 영업일 건수) */
+	private final int[] rank;
+	/** 영업일 (오래된 순서) */
+	private final LocalDate[] openDays;
+
+	private BusinessDayCalendar(String category, int year, BitSet open) {
+		this.category = category;
+		this.year = year;
+		this.open = open;
+		int days = Year.of(year).length();
+		this.rank = new int[days + 1];
+		this.openDays = new LocalDate[open.cardinality()];
+		for (int i = 0; i < days; i++) {
+			boolean isOpen = open.get(i);
+			rank[i + 1] = rank[i] + (isOpen ? 1 : 0);
+			if (isOpen) {
+				openDays[rank[i]] = LocalDate.ofYearDay(year, i + 1);
+			}
+		}
+	}
+
+	/** 연도 안의 영업일 건수를 반환합니다. */
+	public int count() {
+		return openDays.length;
+	}
+
+	/** 영업일일 때는 true를 반환합니다. */
+	public boolean isBusinessDay(LocalDate day) {
+		return open.get(index(day));
+	}
+
+	/** 지정일 앞의 (지정일을 포함하지 않는) 연도 안의 영업일 건수를 반환합니다. */
+	public int countBefore(LocalDate day) {
+		return rank[index(day)];
+	}
+
+	/** 지정일까지의 (지정일을 포함하는) 연도 안의 영업일 건수를 반환합니다. */
+	public int countUntil(LocalDate day) {
+		return rank[index(day) + 1];
+	}
+
+	/** 연도 안의 n번째 (0부터) 영업일을 반환합니다. */
+	public LocalDate businessDay(int n) {
+		return openDays[n];
+	}
+
+	private int index(LocalDate day) {
+		if (day.getYear() != year) {
+			throw new IllegalArgumentException("연도가 다른 날짜입니다. [" + year + "] [" + day + "]");
+		}
+		return day.getDayOfYear() - 1;
+	}
+
+	/** 주말과 휴일을 제외한 영업일 달력을 생성합니다. */
+	public static BusinessDayCalendar of(String category, int year, Collection<LocalDate> holidays) {
+		int days = Year.of(year).length();
+		BitSet open = new BitSet(days);
+		for (int i = 0; i < days; i++) {
+			if (!DateUtils.isWeekend(LocalDate.ofYearDay(year, i + 1))) {
+				open.set(i);
+			}
+		}
+		holidays.stream().filter(day -> day.getYear() == year).forEach(day -> open.clear(day.getDayOfYear() - 1));
+		return new BusinessDayCalendar(category, year, open);
+	}
+
+}
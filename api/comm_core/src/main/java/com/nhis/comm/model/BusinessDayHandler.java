@@ -3,27 +3,47 @@ package com.nhis.comm.model;
 import com.nhis.comm.model.master.Holiday;
 import com.nhis.comm.context.Timestamper;
 import com.nhis.comm.context.orm.DefaultRepository;
-import com.nhis.comm.util.DateUtils;
 import com.nhis.comm.model.master.Holiday.RegHoliday;
 import lombok.AllArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
 
 /**
  * Created by sewoo on 2016. 12. 28..
  *
  * 도메인에 따라 영업일 관련 유틸리티 핸들러.
+ * <p> 영업일은 휴일 구분 / 연도 단위의 영업일 달력 (BusinessDayCalendar)으로 계산합니다.
+ * 달력은 처음 이용시에 휴일 마스터에서 한 번만 만들고, 휴일 마스터의 등록시에 다시 만듭니다.
  */
 @Component
-@AllArgsConstructor
 public class BusinessDayHandler {
 	private Timestamper time;
 	private HolidayAccessor holidayAccessor;
+	/** 휴일 구분 / 연도별 영업일 달력 */
+	private final ConcurrentMap<String, ConcurrentMap<Integer, BusinessDayCalendar>> calendars = new ConcurrentHashMap<>();
+
+	public BusinessDayHandler(Timestamper time, HolidayAccessor holidayAccessor) {
+		this.time = time;
+		this.holidayAccessor = holidayAccessor;
+		if (holidayAccessor != null) {
+			holidayAccessor.addListener(this::refresh);
+		}
+	}
 
 	/** 영업일을 반환 합니다 */
 	public LocalDate day() {
@@ -32,38 +52,180 @@ public class BusinessDayHandler {
 
 	/** 영업일을 반환합니다. */
 	public LocalDate day(int daysToAdd) {
-		LocalDate day = day();
+		return day(day(), daysToAdd, Holiday.CategoryDefault);
+	}
+
+	/** 기준일로부터 지정 영업일 수만큼 이동한 영업일을 반환합니다. */
+	public LocalDate day(LocalDate baseDay, int daysToAdd) {
+		return day(baseDay, daysToAdd, Holiday.CategoryDefault);
+	}
+
+	/**
+	 * 기준일로부터 지정 영업일 수만큼 이동한 영업일을 반환합니다.
+	 * <p> daysToAdd가 0일 때는 기준일을 그대로 반환합니다.
+	 */
+	public LocalDate day(LocalDate baseDay, int daysToAdd, String category) {
+		return day(baseDay, daysToAdd, year -> calendar(category, year));
+	}
+
+	/**
+	 * 기준일마다 지정 영업일 수만큼 이동한 영업일을 일괄로 반환합니다.
+	 * <p> 기준일이 null인 요소는 null을 반환합니다.
+	 */
+	public LocalDate[] days(LocalDate[] baseDays, int daysToAdd, String category) {
+		YearCalendars calendars = new YearCalendars(category);
+		LocalDate[] result = new LocalDate[baseDays.length];
+		for (int i = 0; i < baseDays.length; i++) {
+			result[i] = baseDays[i] != null ? day(baseDays[i], daysToAdd, calendars) : null;
+		}
+		return result;
+	}
+
+	/**
+	 * 기준일마다 같은 위치의 영업일 수만큼 이동한 영업일을 일괄로 반환합니다.
+	 * <p> 기준일이 null인 요소는 null을 반환합니다.
+	 */
+	public LocalDate[] days(LocalDate[] baseDays, int[] daysToAdd, String category) {
+		Assert.isTrue(baseDays.length == daysToAdd.length);
+		YearCalendars calendars = new YearCalendars(category);
+		LocalDate[] result = new LocalDate[baseDays.length];
+		for (int i = 0; i < baseDays.length; i++) {
+			result[i] = baseDays[i] != null ? day(baseDays[i], daysToAdd[i], calendars) : null;
+		}
+		return result;
+	}
+
+	private LocalDate day(LocalDate baseDay, int daysToAdd, IntFunction<BusinessDayCalendar> calendars) {
+		if (daysToAdd == 0) {
+			return baseDay;
+		}
+		BusinessDayCalendar calendar = calendars.apply(baseDay.getYear());
 		if (0 < daysToAdd) {
-			for (int i = 0; i < daysToAdd; i++)
-				day = dayNext(day);
-		} else if (daysToAdd < 0) {
-			for (int i = 0; i < (-daysToAdd); i++)
-				day = dayPrevious(day);
+			int n = calendar.countUntil(baseDay) + daysToAdd - 1;
+			while (calendar.count() <= n) {
+				n -= calendar.count();
+				calendar = calendars.apply(calendar.getYear() + 1);
+			}
+			return calendar.businessDay(n);
+		} else {
+			int n = calendar.countBefore(baseDay) + daysToAdd;
+			while (n < 0) {
+				calendar = calendars.apply(calendar.getYear() - 1);
+				n += calendar.count();
+			}
+			return calendar.businessDay(n);
+		}
+	}
+
+	/** 영업일일 때는 true를 반환합니다. */
+	public boolean isBusinessDay(LocalDate day) {
+		return isBusinessDay(day, Holiday.CategoryDefault);
+	}
+
+	public boolean isBusinessDay(LocalDate day, String category) {
+		return calendar(category, day.getYear()).isBusinessDay(day);
+	}
+
+	/**
+	 * 두 날짜 사이의 영업일 수를 반환합니다.
+	 * <p> from의 다음 날부터 to까지 (to를 포함)의 영업일 수이며, to가 from보다 앞일 때는 음수입니다.
+	 * (to가 from 이후의 영업일일 때는 day(from, businessDaysBetween(from, to), category)가 to가 됩니다)
+	 */
+	public int businessDaysBetween(LocalDate from, LocalDate to) {
+		return businessDaysBetween(from, to, Holiday.CategoryDefault);
+	}
+
+	public int businessDaysBetween(LocalDate from, LocalDate to, String category) {
+		return businessDaysBetween(from, to, year -> calendar(category, year));
+	}
+
+	/**
+	 * 같은 위치의 두 날짜 사이의 영업일 수를 일괄로 반환합니다. (businessDaysBetween 참조)
+	 * <p> 날짜가 null인 요소는 0을 반환합니다.
+	 */
+	public int[] businessDaysBetween(LocalDate[] from, LocalDate[] to, String category) {
+		Assert.isTrue(from.length == to.length);
+		YearCalendars calendars = new YearCalendars(category);
+		int[] result = new int[from.length];
+		for (int i = 0; i < from.length; i++) {
+			result[i] = from[i] != null && to[i] != null ? businessDaysBetween(from[i], to[i], calendars) : 0;
 		}
-		return day;
+		return result;
 	}
 
-	private LocalDate dayNext(LocalDate baseDay) {
-		LocalDate day = baseDay.plusDays(1);
-		while (isHolidayOrWeeekDay(day))
-			day = day.plusDays(1);
-		return day;
+	private int businessDaysBetween(LocalDate from, LocalDate to, IntFunction<BusinessDayCalendar> calendars) {
+		if (to.isBefore(from)) {
+			return -businessDaysBetween(to, from, calendars);
+		}
+		BusinessDayCalendar calendar = calendars.apply(from.getYear());
+		if (from.getYear() == to.getYear()) {
+			return calendar.countUntil(to) - calendar.countUntil(from);
+		}
+		int count = calendar.count() - calendar.countUntil(from);
+		for (int year = from.getYear() + 1; year < to.getYear(); year++) {
+			count += calendars.apply(year).count();
+		}
+		return count + calendars.apply(to.getYear()).countUntil(to);
 	}
 
-	private LocalDate dayPrevious(LocalDate baseDay) {
-		LocalDate day = baseDay.minusDays(1);
-		while (isHolidayOrWeeekDay(day))
-			day = day.minusDays(1);
-		return day;
+	/** 휴일 구분 / 연도의 영업일 달력을 반환합니다. */
+	public BusinessDayCalendar calendar(String category, int year) {
+		ConcurrentMap<Integer, BusinessDayCalendar> byYear = calendars.get(category);
+		if (byYear == null) {
+			byYear = calendars.computeIfAbsent(category, k -> new ConcurrentHashMap<>());
+		}
+		BusinessDayCalendar calendar = byYear.get(year);
+		return calendar != null ? calendar : byYear.computeIfAbsent(year, k -> load(category, year));
 	}
 
-	/** 공휴일이나 주말시는 true. */
-	private boolean isHolidayOrWeeekDay(LocalDate day) {
-		return (DateUtils.isWeekend(day) || isHoliday(day));
+	private BusinessDayCalendar load(String category, int year) {
+		List<LocalDate> holidays = holidayAccessor == null ? Collections.emptyList()
+				: holidayAccessor.findHoliday(year, category).stream().map(Holiday::getDay).collect(Collectors.toList());
+		return BusinessDayCalendar.of(category, year, holidays);
 	}
 
-	private boolean isHoliday(LocalDate day) {
-		return holidayAccessor == null ? false : holidayAccessor.getHoliday(day).isPresent();
+	/** 영업일 달력을 파기합니다. (다음 이용시에 휴일 마스터에서 다시 만듭니다) */
+	public void refresh() {
+		calendars.clear();
+	}
+
+	/** 일괄 계산 중에 이용하는 연도별 영업일 달력. (공유 맵의 검색을 생략합니다) */
+	private class YearCalendars implements IntFunction<BusinessDayCalendar> {
+		private final String category;
+		private BusinessDayCalendar[] calendars = new BusinessDayCalendar[0];
+		private int firstYear;
+
+		YearCalendars(String category) {
+			this.category = category;
+		}
+
+		@Override
+		public BusinessDayCalendar apply(int year) {
+			int index = year - firstYear;
+			if (index < 0 || calendars.length <= index) {
+				grow(year);
+				index = year - firstYear;
+			}
+			BusinessDayCalendar calendar = calendars[index];
+			if (calendar == null) {
+				calendar = calendars[index] = calendar(category, year);
+			}
+			return calendar;
+		}
+
+		private void grow(int year) {
+			if (calendars.length == 0) {
+				calendars = new BusinessDayCalendar[1];
+				firstYear = year;
+				return;
+			}
+			int first = Math.min(firstYear, year);
+			int last = Math.max(firstYear + calendars.length - 1, year);
+			BusinessDayCalendar[] grown = new BusinessDayCalendar[last - first + 1];
+			System.arraycopy(calendars, 0, grown, firstYear - first, calendars.length);
+			calendars = grown;
+			firstYear = first;
+		}
 	}
 
 	/** 공휴일 마스터를 검색 / 등록 액세서. */
@@ -71,6 +233,8 @@ public class BusinessDayHandler {
 	@AllArgsConstructor
 	public static class HolidayAccessor {
 		private DefaultRepository rep;
+		/** 휴일 마스터의 등록을 통지하는 리스너 */
+		private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
 
 		@Transactional(DefaultRepository.BeanNameTx)
 		@Cacheable(cacheNames = "HolidayAccessor.getHoliday")
@@ -78,10 +242,35 @@ public class BusinessDayHandler {
 			return Holiday.get(rep, day);
 		}
 
+		@Transactional(DefaultRepository.BeanNameTx)
+		public List<Holiday> findHoliday(int year, String category) {
+			return Holiday.find(rep, year, category);
+		}
+
+		/** 휴일 마스터를 등록합니다. 트랜잭션 안에서는 커밋 후에 리스너로 통지합니다. */
 		@Transactional(DefaultRepository.BeanNameTx)
 		@CacheEvict(cacheNames = "HolidayAccessor.getHoliday", allEntries = true)
 		public void register(final DefaultRepository rep, final RegHoliday p) {
 			Holiday.register(rep, p);
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+					@Override
+					public void afterCommit() {
+						notifyListeners();
+					}
+				});
+			} else {
+				notifyListeners();
+			}
+		}
+
+		/** 휴일 마스터의 등록을 통지하는 리스너를 추가합니다. */
+		public void addListener(Runnable listener) {
+			listeners.add(listener);
+		}
+
+		private void notifyListeners() {
+			listeners.forEach(Runnable::run);
 		}
 
 	}
@@ -2,6 +2,7 @@ package com.nhis.comm.model.master;
 
 import com.nhis.comm.context.Dto;
 import com.nhis.comm.context.orm.OrmActiveMetaRecord;
+import com.nhis.comm.context.orm.OrmQueryMetadata;
 import com.nhis.comm.context.orm.OrmRepository;
 import com.nhis.comm.model.constraints.*;
 import com.nhis.comm.util.DateUtils;
@@ -9,7 +10,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
@@ -18,6 +22,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Created by sewoo on 2016. 12. 29..
@@ -26,6 +31,8 @@ import java.util.Optional;
  */
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class Holiday extends OrmActiveMetaRecord<Holiday> {
@@ -61,7 +68,7 @@ public class Holiday extends OrmActiveMetaRecord<Holiday> {
 	}
 
 	public static Optional<Holiday> get(final OrmRepository rep, LocalDate day, String category) {
-		return rep.tmpl().get("from Holiday h where h.category=?1 and h.day=?2", category, day);
+		return rep.tmpl(OrmQueryMetadata.withCache()).get("from Holiday h where h.category=?1 and h.day=?2", category, day);
 	}
 
 	/** 휴일 마스터를 가져옵니다. (예외 포함) */
@@ -70,7 +77,7 @@ public class Holiday extends OrmActiveMetaRecord<Holiday> {
 	}
 
 	public static Holiday load(final OrmRepository rep, LocalDate day, String category) {
-		return rep.tmpl().load("from Holiday h where h.category=?1 and h.day=?2", category, day);
+		return rep.tmpl(OrmQueryMetadata.withCache()).load("from Holiday h where h.category=?1 and h.day=?2", category, day);
 	}
 
 	/**  휴일 정보를 검색합니다. */
@@ -87,7 +94,7 @@ public class Holiday extends OrmActiveMetaRecord<Holiday> {
 	public static void register(final OrmRepository rep, final RegHoliday p) {
 		rep.tmpl().execute("delete from Holiday h where h.category=?1 and h.day between ?2 and ?3",
 				p.category, LocalDate.ofYearDay(p.year, 1), DateUtils.dayTo(p.year));
-		p.list.forEach(v -> v.create(p).save(rep));
+		rep.saveAll(p.list.stream().map(v -> v.create(p)).collect(Collectors.toList()));
 	}
 
 	/** 등록 매개 변수 */
@@ -4,6 +4,7 @@ import com.nhis.comm.ValidationException;
 import com.nhis.comm.context.Dto;
 import com.nhis.comm.context.actor.Actor;
 import com.nhis.comm.context.orm.OrmActiveRecord;
+import com.nhis.comm.context.orm.OrmPreparedQuery;
 import com.nhis.comm.context.orm.OrmRepository;
 import com.nhis.comm.model.constraints.IdStr;
 import com.nhis.comm.model.constraints.Name;
@@ -11,11 +12,15 @@ import com.nhis.comm.model.constraints.OutlineEmpty;
 import com.nhis.comm.model.constraints.Password;
 import com.nhis.comm.util.Validator;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.criterion.MatchMode;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +30,8 @@ import java.util.Optional;
  */
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @ToString(callSuper = false, exclude = { "password" })
 @EqualsAndHashCode(callSuper = false)
@@ -64,11 +71,14 @@ public class Staff extends OrmActiveRecord<Staff> {
 		return rep.load(Staff.class, id);
 	}
 
+	/** 검색 쿼리 (형태를 한 번만 컴파일합니다) */
+	private static final OrmPreparedQuery<Staff> FindQuery = OrmPreparedQuery.of("Staff.find", Staff.class,
+			(criteria) -> criteria.likeParam(new String[] { "id", "name" }, "keyword", MatchMode.ANYWHERE)
+					.sort("id").result());
+
 	/** 직원을 찾습니다. */
 	public static List<Staff> find(final OrmRepository rep, final FindStaff p) {
-		return rep.tmpl().find(Staff.class,
-				(criteria) -> criteria.like(new String[] { "id", "name" }, p.keyword, MatchMode.ANYWHERE)
-						.sort("id").result());
+		return rep.tmpl().find(FindQuery, Collections.singletonMap("keyword", p.keyword));
 	}
 
 	/** 직원을 등록합니다. */
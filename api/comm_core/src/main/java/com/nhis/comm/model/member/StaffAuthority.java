@@ -1,6 +1,7 @@
 package com.nhis.comm.model.member;
 
 import com.nhis.comm.context.orm.OrmActiveRecord;
+import com.nhis.comm.context.orm.OrmQueryMetadata;
 import com.nhis.comm.context.orm.OrmRepository;
 import com.nhis.comm.model.constraints.IdStr;
 import com.nhis.comm.model.constraints.Name;
@@ -8,7 +9,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
@@ -21,6 +25,8 @@ import java.util.List;
  */
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,7 +47,7 @@ public class StaffAuthority extends OrmActiveRecord<StaffAuthority> {
 
 	/** ID의 권한 목록을 반환합니다. */
 	public static List<StaffAuthority> find(final OrmRepository rep, String staffId) {
-		return rep.tmpl().find("from StaffAuthority where staffId=?1", staffId);
+		return rep.tmpl(OrmQueryMetadata.withCache()).find("from StaffAuthority where staffId=?1", staffId);
 	}
 
 }
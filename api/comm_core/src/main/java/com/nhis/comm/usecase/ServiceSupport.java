@@ -2,6 +2,7 @@ package com.nhis.comm.usecase;
 
 import com.nhis.comm.context.DomainHelper;
 import com.nhis.comm.context.actor.Actor;
+import com.nhis.comm.context.async.AsyncHandler;
 import com.nhis.comm.context.audit.AuditHandler;
 import com.nhis.comm.context.lock.IdLockHandler;
 import com.nhis.comm.context.orm.DefaultRepository;
@@ -15,6 +16,7 @@ import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 /**
@@ -47,6 +49,9 @@ public abstract class ServiceSupport {
 	/** 감사 유틸리티 */
 	@Autowired
 	protected AuditHandler audit;
+	/** 비동기 실행 유틸리티 */
+	@Autowired
+	protected AsyncHandler async;
 
 	@Autowired
 	@Lazy
@@ -77,6 +82,47 @@ public abstract class ServiceSupport {
 		});
 	}
 
+	/**
+	 * 운동코드 Lock 부착 트랜잭션 처리를 실행 합니다。
+	 * <p> timeoutMillis 안에 Lock을 얻지 못했을 때는 ValidationException으로 처리를 중단합니다。
+	 */
+	protected <T> T tx(String exerciseCd, IdLockHandler.LockType lockType, long timeoutMillis, final Supplier<T> callable) {
+		return idLock.tryCall(exerciseCd, lockType, timeoutMillis, () -> {
+			return tx(callable);
+		});
+	}
+
+	/** 운동코드 Lock 부착 트랜잭션 처리를 실행 합니다。(Lock 대기 시간 제한 부착) */
+	protected void tx(String exerciseCd, IdLockHandler.LockType lockType, long timeoutMillis, final Runnable callable) {
+		idLock.tryCall(exerciseCd, lockType, timeoutMillis, () -> {
+			tx(callable);
+			return true;
+		});
+	}
+
+	/**
+	 * 트랜잭션 처리를 비동기로 실행합니다。
+	 * <p> 트랜잭션은 실행 스레드에서 새로 시작합니다. 트랜잭션 안에서 호출했을 때는 커밋 후에 실행합니다。
+	 */
+	protected <T> CompletableFuture<T> txAsync(Supplier<T> callable) {
+		return async.supply(() -> tx(callable));
+	}
+
+	/** 트랜잭션 처리를 비동기로 실행합니다。 */
+	protected CompletableFuture<Void> txAsync(Runnable command) {
+		return async.run(() -> tx(command));
+	}
+
+	/** 운동코드 Lock 부착 트랜잭션 처리를 비동기로 실행 합니다。 */
+	protected <T> CompletableFuture<T> txAsync(String exerciseCd, IdLockHandler.LockType lockType, final Supplier<T> callable) {
+		return async.supply(() -> tx(exerciseCd, lockType, callable));
+	}
+
+	/** 운동코드 Lock 부착 트랜잭션 처리를 비동기로 실행 합니다。 */
+	protected CompletableFuture<Void> txAsync(String exerciseCd, IdLockHandler.LockType lockType, final Runnable command) {
+		return async.run(() -> tx(exerciseCd, lockType, command));
+	}
+
 	/** i18n 메시지 변환을 수행합니다. */
 	protected String msg(String message) {
 		return msg.getMessage(message, null, message, actor().getLocale());
@@ -0,0 +1,128 @@
+package com.nhis.comm.context.audit;
+
+import com.nhis.comm.ActionStatusType;
+import com.nhis.comm.context.audit.AuditWriter.Entry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ */
+public class AuditJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void 재기동후에도_기록키와_등록ID를_재생한다() throws Exception {
+		File dir = folder.newFolder();
+		AuditEvent started = event(null, ActionStatusType.Processing);
+		AuditEvent closed = event(10L, ActionStatusType.Processed);
+		try (AuditJournal journal = new AuditJournal(dir, 1024L * 1024, false)) {
+			journal.append(Arrays.asList(new Entry("run1:1", 1L, started), new Entry("run1:2", 3L, closed)));
+		}
+
+		List<Entry> replayed = new ArrayList<>();
+		try (AuditJournal journal = new AuditJournal(dir, 1024L * 1024, false)) {
+			assertThat(journal.isPending()).isTrue();
+			assertThat(journal.replay(100, batch -> add(replayed, batch))).isTrue();
+			assertThat(journal.isPending()).isFalse();
+		}
+		assertThat(replayed).extracting(Entry::getKey).containsExactly("run1:1", "run1:2");
+		assertThat(replayed).extracting(Entry::getSeq).containsExactly(1L, 3L);
+		AuditEvent first = (AuditEvent) replayed.get(0).getAudit();
+		AuditEvent second = (AuditEvent) replayed.get(1).getAudit();
+		assertThat(first.getId()).isNull();
+		assertThat(first.getStatusType()).isEqualTo(ActionStatusType.Processing);
+		assertThat(second.getId()).isEqualTo(10L);
+		assertThat(second.getStatusType()).isEqualTo(ActionStatusType.Processed);
+		assertThat(second.getEndDate()).isEqualTo(closed.getEndDate());
+
+		try (AuditJournal journal = new AuditJournal(dir, 1024L * 1024, false)) {
+			assertThat(journal.isPending()).isFalse();
+		}
+	}
+
+	@Test
+	public void 기록에_실패한_배치부터_다시_재생한다() throws Exception {
+		File dir = folder.newFolder();
+		try (AuditJournal journal = new AuditJournal(dir, 1024L * 1024, false)) {
+			journal.append(Arrays.asList(new Entry("run1:1", 1L, event(null, ActionStatusType.Processed)),
+					new Entry("run1:2", 2L, event(null, ActionStatusType.Processed))));
+			List<Entry> replayed = new ArrayList<>();
+			assertThat(journal.replay(1, batch -> replayed.isEmpty() ? add(replayed, batch) : 0)).isFalse();
+			assertThat(replayed).extracting(Entry::getKey).containsExactly("run1:1");
+		}
+		List<Entry> replayed = new ArrayList<>();
+		try (AuditJournal journal = new AuditJournal(dir, 1024L * 1024, false)) {
+			assertThat(journal.replay(1, batch -> add(replayed, batch))).isTrue();
+		}
+		assertThat(replayed).extracting(Entry::getKey).containsExactly("run1:2");
+	}
+
+	@Test
+	public void 배치의_일부만_기록했을때는_기록한_위치까지_진행한다() throws Exception {
+		File dir = folder.newFolder();
+		try (AuditJournal journal = new AuditJournal(dir, 1024L * 1024, false)) {
+			journal.append(Arrays.asList(new Entry("run1:1", 1L, event(null, ActionStatusType.Processed)),
+					new Entry("run1:2", 2L, event(null, ActionStatusType.Processed)),
+					new Entry("run1:3", 3L, event(null, ActionStatusType.Processed))));
+			assertThat(journal.replay(100, batch -> 1)).isFalse();
+		}
+		List<Entry> replayed = new ArrayList<>();
+		try (AuditJournal journal = new AuditJournal(dir, 1024L * 1024, false)) {
+			assertThat(journal.replay(100, batch -> add(replayed, batch))).isTrue();
+		}
+		assertThat(replayed).extracting(Entry::getKey).containsExactly("run1:2", "run1:3");
+	}
+
+	@Test
+	public void 최대크기를_넘었을때는_추가를_거부하고_재생후에_재개한다() throws Exception {
+		File dir = folder.newFolder();
+		List<Entry> entries = Arrays.asList(new Entry("run1:1", 1L, event(null, ActionStatusType.Processed)));
+		try (AuditJournal journal = new AuditJournal(dir, 1024L, false, 1024L)) {
+			try {
+				while (true) {
+					journal.append(entries);
+				}
+			} catch (IOException e) {
+				assertThat(journal.isFull()).isTrue();
+			}
+			assertThat(journal.bytes()).isGreaterThan(0L).isLessThanOrEqualTo(1024L);
+			assertThat(journal.replay(100, List::size)).isTrue();
+			assertThat(journal.bytes()).isEqualTo(0L);
+			journal.append(entries);
+			assertThat(journal.isFull()).isFalse();
+		}
+	}
+
+	private int add(List<Entry> replayed, List<Entry> batch) {
+		replayed.addAll(batch);
+		return batch.size();
+	}
+
+	private AuditEvent event(Long id, ActionStatusType statusType) {
+		AuditEvent event = new AuditEvent();
+		event.setId(id);
+		event.setCategory("test");
+		event.setMessage("메시지");
+		event.setStatusType(statusType);
+		event.setStartDate(LocalDateTime.of(2017, 2, 25, 10, 0, 0, 123000000));
+		if (statusType != ActionStatusType.Processing) {
+			event.setEndDate(LocalDateTime.of(2017, 2, 25, 10, 0, 1));
+			event.setTime(1000L);
+		}
+		return event;
+	}
+
+}
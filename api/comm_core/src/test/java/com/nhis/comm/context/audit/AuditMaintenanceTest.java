@@ -0,0 +1,93 @@
+package com.nhis.comm.context.audit;
+
+import com.nhis.comm.ActionStatusType;
+import com.nhis.comm.context.audit.AuditRollup.AuditType;
+import com.nhis.comm.context.orm.H2SystemSchema;
+import com.nhis.comm.context.orm.SystemRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ * H2 (인메모리)를 이용한 AuditMaintenance의 집계 검증.
+ */
+public class AuditMaintenanceTest {
+	private static final LocalDateTime Now = LocalDateTime.of(2017, 2, 25, 12, 0);
+	private static final LocalDateTime Hour = LocalDateTime.of(2017, 2, 25, 9, 0);
+
+	private H2SystemSchema schema;
+	private SystemRepository rep;
+	private AuditMaintenance maintenance;
+
+	@Before
+	public void setup() {
+		schema = H2SystemSchema.of(Clock.fixed(Now.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()),
+				AuditEvent.class, AuditActor.class, AuditRollup.class);
+		rep = schema.getRep();
+		maintenance = new AuditMaintenance();
+		maintenance.setRep(rep);
+		maintenance.setTx(schema.getTx());
+	}
+
+	@After
+	public void cleanup() {
+		schema.destroy();
+	}
+
+	@Test
+	public void 집계후에_종료되거나_늦게_등록된_감사로그는_다시_집계한다() {
+		AuditEvent processing = tx(() -> event(Hour.plusMinutes(10), null).save(rep));
+		tx(() -> event(Hour.plusMinutes(20), Hour.plusMinutes(21)).save(rep));
+
+		assertThat(maintenance.rollup(AuditType.Event)).isEqualTo(1);
+		AuditRollup rolled = rollup();
+		assertThat(rolled.getCount()).isEqualTo(1L);
+		assertThat(rolled.getProcessingCount()).isEqualTo(1L);
+
+		tx(() -> {
+			AuditEvent v = rep.load(AuditEvent.class, processing.getId());
+			return v.close(ActionStatusType.Processed, null, Hour.plusMinutes(50)).update(rep);
+		});
+		tx(() -> event(Hour.plusMinutes(30), Hour.plusMinutes(40)).save(rep)); // 저널 재생 등으로 늦게 등록
+
+		assertThat(maintenance.rollup(AuditType.Event)).isEqualTo(1);
+		AuditRollup rerolled = rollup();
+		assertThat(rerolled.getCount()).isEqualTo(3L);
+		assertThat(rerolled.getProcessingCount()).isEqualTo(0L);
+		assertThat(rerolled.getTotalTime()).isEqualTo((1L + 40L + 10L) * 60L * 1000L);
+
+		assertThat(maintenance.rollup(AuditType.Event)).isEqualTo(0);
+	}
+
+	private AuditRollup rollup() {
+		List<AuditRollup> list = tx(() -> rep.tmpl().find("from AuditRollup r where r.startHour=?1", Hour));
+		assertThat(list).hasSize(1);
+		return list.get(0);
+	}
+
+	private AuditEvent event(LocalDateTime startDate, LocalDateTime endDate) {
+		AuditEvent event = new AuditEvent();
+		event.setCategory("test");
+		event.setMessage("메시지");
+		event.setStartDate(startDate);
+		event.setStatusType(ActionStatusType.Processing);
+		if (endDate != null) {
+			event.close(ActionStatusType.Processed, null, endDate);
+		}
+		return event;
+	}
+
+	private <T> T tx(Supplier<T> callable) {
+		return schema.tx(callable);
+	}
+
+}
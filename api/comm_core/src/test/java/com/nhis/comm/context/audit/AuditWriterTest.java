@@ -0,0 +1,118 @@
+package com.nhis.comm.context.audit;
+
+import com.nhis.comm.ActionStatusType;
+import com.nhis.comm.context.actor.Actor.ActorRoleType;
+import com.nhis.comm.context.actor.ActorSession;
+import com.nhis.comm.context.audit.AuditWriter.Entry;
+import com.nhis.comm.context.orm.H2SystemSchema;
+import com.nhis.comm.context.orm.SystemRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ * H2 (인메모리)를 이용한 AuditWriter의 기록 검증.
+ */
+public class AuditWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private H2SystemSchema schema;
+	private SystemRepository rep;
+	private ActorSession session;
+	private File journalDir;
+	private AuditWriter writer;
+	private AuditHandler handler;
+
+	@Before
+	public void setup() throws Exception {
+		schema = H2SystemSchema.of(AuditActor.class, AuditEvent.class);
+		rep = schema.getRep();
+		session = new ActorSession();
+		rep.dh().setActorSession(session);
+		writer = new AuditWriter();
+		writer.setRep(rep);
+		writer.setTx(schema.getTx());
+		journalDir = folder.newFolder();
+		writer.setJournalDir(journalDir.getPath());
+		writer.setFlushMillis(10L);
+		handler = new AuditHandler();
+		handler.setSession(session);
+		handler.setWriter(writer);
+	}
+
+	@After
+	public void cleanup() {
+		schema.destroy();
+	}
+
+	@Test
+	public void Error로_종료한_처리도_감사로그를_종료하고_추적을_해제한다() throws Exception {
+		writer.start();
+		try {
+			handler.callAudit("test", "메시지", () -> {
+				throw new AssertionError("assert");
+			});
+			fail("AssertionError");
+		} catch (AssertionError e) {
+			assertThat(e.getMessage()).isEqualTo("assert");
+		}
+		assertThat(metric("audit.async.inflight")).isEqualTo(0L);
+		writer.stop();
+
+		List<AuditActor> list = schema.tx(() -> rep.tmpl().find("from AuditActor"));
+		assertThat(list).hasSize(1);
+		assertThat(list.get(0).getStatusType()).isEqualTo(ActionStatusType.Error);
+	}
+
+	@Test
+	public void 거부된_감사로그만_격리하고_나머지는_기록한다() throws Exception {
+		try (AuditJournal journal = new AuditJournal(journalDir, 1024L * 1024, false)) {
+			journal.append(Arrays.asList(
+					new Entry("run1:1", 1L, actor("valid1")),
+					new Entry("run1:2", 2L, actor("invalid-category-over-30-characters")),
+					new Entry("run1:3", 3L, actor("valid2"))));
+		}
+		writer.start();
+		handler.callAudit("valid3", "메시지", () -> true);
+		writer.stop();
+
+		List<AuditActor> list = schema.tx(() -> rep.tmpl().find("from AuditActor order by id"));
+		assertThat(list).extracting(AuditActor::getCategory).containsExactly("valid1", "valid2", "valid3");
+		assertThat(metric("audit.async.quarantined")).isEqualTo(1L);
+		assertThat(metric("audit.async.journal.pending")).isEqualTo(0L);
+		try (AuditJournal deadLetter = new AuditJournal(new File(journalDir, "dead-letter"), 1024L * 1024, false)) {
+			assertThat(deadLetter.isPending()).isTrue();
+		}
+	}
+
+	private AuditActor actor(String category) {
+		AuditActor actor = new AuditActor();
+		actor.setActorId("sample");
+		actor.setRoleType(ActorRoleType.User);
+		actor.setCategory(category);
+		actor.setMessage("메시지");
+		actor.setStatusType(ActionStatusType.Processed);
+		actor.setStartDate(LocalDateTime.of(2017, 2, 25, 10, 0, 0));
+		actor.setEndDate(LocalDateTime.of(2017, 2, 25, 10, 0, 1));
+		return actor;
+	}
+
+	private long metric(String name) {
+		return writer.metrics().stream().filter(v -> v.getName().equals(name))
+				.findFirst().map(v -> v.getValue().longValue()).orElse(-1L);
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.nhis.comm.context.lock;
+
+import com.nhis.comm.context.lock.IdLockHandler.LockType;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ * IdLockHandler의 경합 벤치마크. 전역 모니터 방식 (변경 전)과 비교합니다.
+ * <p> 처리량은 로그 (INFO)로 출력합니다. 처리량 자체는 실행 환경 (CPU 수)에 따라 다르므로 검증하지 않고,
+ * 모든 스레드 수에서 완료하고 잠금 테이블이 비는 것과 대기 중인 ID가 다른 ID를 막지 않는 것을 검증합니다.
+ * <p> 변경 전 방식은 같은 ID의 대기 중에 전역 모니터를 보유하여 교착하므로 스레드별로 다른 ID를 이용합니다.
+ */
+public class IdLockHandlerBenchmarkTest {
+	private static final Logger logger = LoggerFactory.getLogger(IdLockHandlerBenchmarkTest.class);
+	private static final int[] Threads = { 1, 2, 4, 8, 16, 32, 64 };
+	private static final int OpsPerThread = 20000;
+	private static final int IdsPerThread = 100;
+
+	@Test
+	public void 경합시의_처리량() throws Exception {
+		IdLockHandler handler = new IdLockHandler();
+		GlobalMonitorIdLock monitor = new GlobalMonitorIdLock();
+		BiConsumer<Serializable, LockType> current = (id, type) -> handler.call(id, type, () -> {});
+		BiConsumer<Serializable, LockType> previous = (id, type) -> monitor.call(id, type, () -> {});
+		run(current, 8, false);
+		run(previous, 8, false);
+		logger.info("threads | previous (ops/ms) | current (ops/ms) | current, shared ids (ops/ms)");
+		for (int threads : Threads) {
+			long previousOps = run(previous, threads, false);
+			long currentOps = run(current, threads, false);
+			assertThat(handler.size()).isEqualTo(0);
+			long sharedOps = run(current, threads, true);
+			assertThat(handler.size()).isEqualTo(0);
+			logger.info(String.format("%7d | %17d | %16d | %28d", threads, previousOps, currentOps, sharedOps));
+		}
+	}
+
+	@Test(timeout = 10000L)
+	public void 대기중인_ID는_다른_ID의_잠금을_막지_않는다() throws Exception {
+		IdLockHandler handler = new IdLockHandler();
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			executor.submit(() -> handler.call("a", LockType.Write, () -> {
+				locked.countDown();
+				await(done);
+			}));
+			assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+			Future<?> waiting = executor.submit(() -> handler.call("a", LockType.Write, () -> {}));
+			Thread.sleep(50L);
+			assertThat(waiting.isDone()).isFalse();
+			handler.call("b", LockType.Write, () -> assertThat(handler.size()).isEqualTo(2));
+			done.countDown();
+			waiting.get(5, TimeUnit.SECONDS);
+		} finally {
+			done.countDown();
+			executor.shutdownNow();
+		}
+		assertThat(handler.size()).isEqualTo(0);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** 처리량 (ops/ms)을 반환합니다. 쓰기 / 읽기는 1:3 입니다. */
+	private long run(BiConsumer<Serializable, LockType> lock, int threads, boolean shared) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			for (int t = 0; t < threads; t++) {
+				int base = shared ? 0 : t * IdsPerThread;
+				executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < OpsPerThread; i++) {
+						lock.accept(base + i % IdsPerThread, i % 4 == 0 ? LockType.Write : LockType.Read);
+					}
+					return null;
+				});
+			}
+			long begin = System.nanoTime();
+			start.countDown();
+			executor.shutdown();
+			assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+			long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+			return (long) threads * OpsPerThread / elapsedMillis;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/** 변경 전의 IdLockHandler (전역 모니터로 보호한 HashMap) */
+	private static class GlobalMonitorIdLock {
+		private final Map<Serializable, ReentrantReadWriteLock> lockMap = new HashMap<>();
+
+		void call(Serializable id, LockType lockType, Runnable command) {
+			synchronized (lockMap) {
+				ReentrantReadWriteLock idLock = lockMap.computeIfAbsent(id, k -> new ReentrantReadWriteLock());
+				if (lockType.isWrite()) {
+					idLock.writeLock().lock();
+				} else {
+					idLock.readLock().lock();
+				}
+			}
+			try {
+				command.run();
+			} finally {
+				synchronized (lockMap) {
+					ReentrantReadWriteLock idLock = lockMap.get(id);
+					if (idLock.isWriteLockedByCurrentThread()) {
+						idLock.writeLock().unlock();
+					} else {
+						idLock.readLock().unlock();
+					}
+				}
+			}
+		}
+	}
+
+}
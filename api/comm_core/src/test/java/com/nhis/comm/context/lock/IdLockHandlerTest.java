@@ -0,0 +1,108 @@
+package com.nhis.comm.context.lock;
+
+import com.nhis.comm.context.lock.IdLockHandler.LockType;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ */
+public class IdLockHandlerTest {
+
+	private final IdLockHandler lock = new IdLockHandler();
+
+	@Test
+	public void 잠금_해제후_테이블에서_제거된다() {
+		lock.call("a", LockType.Write, () -> assertThat(lock.size()).isEqualTo(1));
+		lock.call("a", LockType.Read, () -> lock.call("b", LockType.Read, () -> assertThat(lock.size()).isEqualTo(2)));
+		assertThat(lock.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void 쓰기_잠금은_배타된다() throws Exception {
+		int[] counter = new int[1];
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			for (int i = 0; i < 8; i++) {
+				executor.submit(() -> {
+					for (int j = 0; j < 10000; j++) {
+						lock.call("a", LockType.Write, () -> counter[0]++);
+					}
+				});
+			}
+			executor.shutdown();
+			assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(counter[0]).isEqualTo(80000);
+		assertThat(lock.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void 보유하지_않은_잠금의_해제는_다른_스레드의_잠금을_유지한다() throws Exception {
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> holder = executor.submit(() -> lock.call("a", LockType.Write, () -> {
+				locked.countDown();
+				await(done);
+			}));
+			assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+			try {
+				lock.unlock("a");
+				fail("IllegalMonitorStateException");
+			} catch (IllegalMonitorStateException e) {
+				// 보유하지 않은 잠금
+			}
+			assertThat(lock.size()).isEqualTo(1);
+			assertThat(lock.tryLock("a", LockType.Write, 0)).isFalse();
+			done.countDown();
+			holder.get(5, TimeUnit.SECONDS);
+		} finally {
+			done.countDown();
+			executor.shutdownNow();
+		}
+		assertThat(lock.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void 제한시간_안에_얻지_못했을때는_false() throws Exception {
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			executor.submit(() -> lock.call("a", LockType.Read, () -> {
+				locked.countDown();
+				await(done);
+			}));
+			assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(lock.tryLock("a", LockType.Write, 50)).isFalse();
+			assertThat(lock.tryLock("a", LockType.Read, 0)).isTrue();
+			lock.unlock("a");
+		} finally {
+			done.countDown();
+			executor.shutdown();
+			executor.awaitTermination(5, TimeUnit.SECONDS);
+		}
+		assertThat(lock.size()).isEqualTo(0);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
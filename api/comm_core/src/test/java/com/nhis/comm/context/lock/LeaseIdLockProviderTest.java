@@ -0,0 +1,108 @@
+package com.nhis.comm.context.lock;
+
+import com.nhis.comm.context.lock.IdLockProvider.IdLease;
+import com.nhis.comm.context.orm.H2SystemSchema;
+import com.nhis.comm.context.orm.SystemRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ * H2 (인메모리)의 리스 테이블을 이용한 LeaseIdLockProvider의 검증.
+ */
+public class LeaseIdLockProviderTest {
+
+	private H2SystemSchema schema;
+	private SystemRepository rep;
+	private JpaTransactionManager tx;
+
+	@Before
+	public void setup() {
+		schema = H2SystemSchema.of(IdLockLease.class);
+		rep = schema.getRep();
+		tx = schema.getTx();
+	}
+
+	@After
+	public void cleanup() {
+		schema.destroy();
+	}
+
+	@Test
+	public void 리스는_노드간에_배타되고_펜싱토큰이_증가한다() {
+		LeaseIdLockProvider nodeA = provider("nodeA", 30000L, 0L);
+		LeaseIdLockProvider nodeB = provider("nodeB", 30000L, 0L);
+
+		IdLease leaseA = nodeA.acquire("a", 0).get();
+		assertThat(leaseA.getToken()).isEqualTo(1L);
+		assertThat(nodeB.acquire("a", 0).isPresent()).isFalse();
+		assertThat(nodeB.acquire("b", 0).isPresent()).isTrue();
+
+		nodeA.release(leaseA);
+		IdLease leaseB = nodeB.acquire("a", 0).get();
+		assertThat(leaseB.getToken()).isEqualTo(2L);
+		assertThat(leaseB.getOwner()).isEqualTo("nodeB");
+	}
+
+	@Test
+	public void 보유중인_리스는_연장되어_만료되지_않는다() throws Exception {
+		LeaseIdLockProvider nodeA = provider("nodeA", 300L, 50L);
+		LeaseIdLockProvider nodeB = provider("nodeB", 300L, 0L);
+		nodeA.start();
+		try {
+			IdLease leaseA = nodeA.acquire("a", 0).get();
+			Thread.sleep(900L);
+			assertThat(nodeB.acquire("a", 0).isPresent()).isFalse();
+
+			nodeA.release(leaseA);
+			assertThat(nodeB.acquire("a", 0).isPresent()).isTrue();
+		} finally {
+			nodeA.stop();
+		}
+	}
+
+	@Test
+	public void 만료된_리스는_다른_노드가_가져가고_이전_보유자의_해제는_무시된다() throws Exception {
+		LeaseIdLockProvider nodeA = provider("nodeA", 100L, 0L);
+		LeaseIdLockProvider nodeB = provider("nodeB", 30000L, 0L);
+		LeaseIdLockProvider nodeC = provider("nodeC", 30000L, 0L);
+
+		IdLease leaseA = nodeA.acquire("a", 0).get();
+		Thread.sleep(300L);
+		IdLease leaseB = nodeB.acquire("a", 0).get();
+		assertThat(leaseB.getToken()).isGreaterThan(leaseA.getToken());
+
+		nodeA.release(leaseA);
+		assertThat(nodeC.acquire("a", 0).isPresent()).isFalse();
+	}
+
+	@Test(timeout = 10000L)
+	public void DB_장애시는_재시도하지_않고_예외를_던진다() {
+		LeaseIdLockProvider nodeA = provider("nodeA", 30000L, 0L);
+		new JdbcTemplate(schema.getDataSource()).execute("drop table id_lock_lease");
+		try {
+			nodeA.acquire("a", -1L);
+			fail("리스 테이블이 없을 때는 예외");
+		} catch (RuntimeException e) {
+			// 재시도하지 않고 전파
+		}
+	}
+
+	private LeaseIdLockProvider provider(String owner, long leaseMillis, long renewMillis) {
+		LeaseIdLockProvider provider = new LeaseIdLockProvider();
+		provider.setRep(rep);
+		provider.setTx(tx);
+		provider.setOwner(owner);
+		provider.setLeaseMillis(leaseMillis);
+		provider.setRenewMillis(renewMillis);
+		provider.setPollMillis(10L);
+		return provider;
+	}
+
+}
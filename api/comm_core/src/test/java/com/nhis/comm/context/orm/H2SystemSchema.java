@@ -0,0 +1,73 @@
+package com.nhis.comm.context.orm;
+
+import com.nhis.comm.context.DomainHelper;
+import com.nhis.comm.context.Timestamper;
+import com.nhis.comm.context.orm.OrmRepository.OrmRepositoryProperties;
+import lombok.Getter;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Clock;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ * 테스트용으로 H2 (인메모리)에 시스템 스키마를 만들고 SystemRepository / 트랜잭션 매니저를 제공합니다.
+ * <p> 테이블은 지정한 엔티티로부터 생성하며, 이용 후에는 destroy로 파기하십시오.
+ */
+@Getter
+public class H2SystemSchema {
+	private final JdbcDataSource dataSource;
+	private final LocalContainerEntityManagerFactoryBean emfBean;
+	private final SystemRepository rep;
+	private final JpaTransactionManager tx;
+
+	private H2SystemSchema(Clock clock, Class<?>... annotatedClasses) {
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+		OrmRepositoryProperties jpa = new OrmRepositoryProperties();
+		jpa.setAnnotatedClasses(annotatedClasses);
+		jpa.getHibernate().setDdlAuto("create-drop");
+		emfBean = jpa.entityManagerFactoryBean(SystemRepository.BeanNameEmf, dataSource);
+		emfBean.afterPropertiesSet();
+		EntityManagerFactory emf = emfBean.getObject();
+		EntityManager em = SharedEntityManagerCreator.createSharedEntityManager(emf);
+		DomainHelper dh = new DomainHelper();
+		dh.setTime(new Timestamper(clock));
+		rep = new SystemRepository() {
+			@Override
+			public EntityManager em() {
+				return em;
+			}
+		};
+		rep.setDh(dh);
+		tx = jpa.transactionManager(emf);
+	}
+
+	/** 지정한 엔티티의 테이블을 가진 시스템 스키마를 생성합니다. */
+	public static H2SystemSchema of(Class<?>... annotatedClasses) {
+		return of(Clock.systemDefaultZone(), annotatedClasses);
+	}
+
+	/** 지정한 엔티티의 테이블을 가진 시스템 스키마를 생성합니다. (Timestamper는 clock을 이용) */
+	public static H2SystemSchema of(Clock clock, Class<?>... annotatedClasses) {
+		return new H2SystemSchema(clock, annotatedClasses);
+	}
+
+	/** 처리를 트랜잭션 안에서 실행합니다. */
+	public <T> T tx(Supplier<T> callable) {
+		return new TransactionTemplate(tx).execute(status -> callable.get());
+	}
+
+	/** 스키마를 파기합니다. */
+	public void destroy() {
+		emfBean.destroy();
+	}
+
+}
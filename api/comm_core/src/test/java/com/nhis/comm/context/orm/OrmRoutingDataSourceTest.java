@@ -0,0 +1,156 @@
+package com.nhis.comm.context.orm;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.h2.tools.Server;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ * H2 (인메모리) 여러 개를 프라이머리 / 레플리카로 한 OrmRoutingDataSource의 분배 검증.
+ * <p> 각 DB는 node 테이블에 자신의 이름을 가지므로 검색 결과로 접속처를 판정합니다.
+ */
+public class OrmRoutingDataSourceTest {
+	private static final long RetryMillis = 300L;
+
+	private OrmRoutingDataSource dataSource;
+	private Server server;
+
+	@After
+	public void cleanup() {
+		if (dataSource != null) {
+			dataSource.close();
+		}
+		if (server != null) {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void 읽기전용_트랜잭션은_레플리카를_번갈아_이용하고_그외는_프라이머리를_이용한다() {
+		dataSource = routing(node("primary"), node("replica1"), node("replica2"));
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			names.add(readOnly(this::name));
+		}
+		assertThat(names).containsExactly("replica1", "replica2", "replica1", "replica2");
+		assertThat(readWrite(this::name)).isEqualTo("primary");
+		assertThat(name()).isEqualTo("primary");
+		assertThat(OrmRoutingDataSource.replica(this::name)).startsWith("replica");
+	}
+
+	@Test
+	public void 쓰기_트랜잭션에서는_레플리카_지정을_무시한다() {
+		dataSource = routing(node("primary"), node("replica1"));
+		readWrite(() -> {
+			assertThat(OrmRoutingDataSource.replica(this::name)).isEqualTo("primary");
+			return jdbc().update("insert into item values (1)");
+		});
+		assertThat(readWrite(this::items)).isEqualTo(1);
+		assertThat(readOnly(this::items)).isEqualTo(0);
+	}
+
+	@Test
+	public void 접속할_수_없는_레플리카는_제외하고_일정시간후에_다시_이용한다() throws Exception {
+		int port = freePort();
+		String revived = "jdbc:h2:tcp://localhost:" + port + "/mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+		dataSource = routing(node("primary"), node("replica1"), revived);
+		for (int i = 0; i < 3; i++) {
+			assertThat(readOnly(this::name)).isEqualTo("replica1");
+		}
+		assertThat(dataSource.status()).containsEntry(revived, false);
+
+		server = Server.createTcpServer("-tcpPort", String.valueOf(port)).start();
+		init(revived, "revived");
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			names.add(readOnly(this::name));
+		}
+		assertThat(names).containsOnly("replica1");
+
+		Thread.sleep(RetryMillis + 100L);
+		names.clear();
+		for (int i = 0; i < 2; i++) {
+			names.add(readOnly(this::name));
+		}
+		assertThat(names).contains("revived");
+		assertThat(dataSource.status()).containsEntry(revived, true);
+	}
+
+	@Test
+	public void 이용_가능한_레플리카가_없을때는_프라이머리를_이용한다() throws Exception {
+		String dead = "jdbc:h2:tcp://localhost:" + freePort() + "/mem:dead";
+		dataSource = routing(node("primary"), dead);
+		assertThat(readOnly(this::name)).isEqualTo("primary");
+		assertThat(readOnly(this::name)).isEqualTo("primary");
+		assertThat(dataSource.status()).containsEntry(dead, false);
+	}
+
+	private OrmRoutingDataSource routing(String primaryUrl, String... replicaUrls) {
+		OrmDataSourceProperties props = new OrmDataSourceProperties();
+		props.setUrl(primaryUrl);
+		props.setMinIdle(0);
+		props.setMaxPoolSize(2);
+		props.setReplicaUrls(Arrays.asList(replicaUrls));
+		props.setReplicaRetryMillis(RetryMillis);
+		props.setReplicaConnectionTimeout(300L);
+		return (OrmRoutingDataSource) props.dataSource();
+	}
+
+	/** 자신의 이름을 가진 인메모리 DB를 만들고 URL을 반환합니다. */
+	private String node(String name) {
+		String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+		init(url, name);
+		return url;
+	}
+
+	private void init(String url, String name) {
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL(url);
+		JdbcTemplate jdbc = new JdbcTemplate(ds);
+		jdbc.execute("create table node (name varchar(20))");
+		jdbc.execute("create table item (id int)");
+		jdbc.update("insert into node values (?)", name);
+	}
+
+	private String name() {
+		return jdbc().queryForObject("select name from node", String.class);
+	}
+
+	private int items() {
+		return jdbc().queryForObject("select count(*) from item", Integer.class);
+	}
+
+	private JdbcTemplate jdbc() {
+		return new JdbcTemplate(dataSource);
+	}
+
+	private <T> T readOnly(Supplier<T> callable) {
+		TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		template.setReadOnly(true);
+		return template.execute(status -> callable.get());
+	}
+
+	private <T> T readWrite(Supplier<T> callable) {
+		return new TransactionTemplate(new DataSourceTransactionManager(dataSource)).execute(status -> callable.get());
+	}
+
+	private static int freePort() throws Exception {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+}
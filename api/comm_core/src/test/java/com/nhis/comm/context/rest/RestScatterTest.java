@@ -0,0 +1,63 @@
+package com.nhis.comm.context.rest;
+
+import com.nhis.comm.context.actor.ActorSession;
+import com.nhis.comm.context.async.AsyncHandler;
+import com.nhis.comm.context.rest.RestScatter.Gathered;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ */
+public class RestScatterTest {
+
+	private AsyncHandler async;
+
+	@Before
+	public void setup() {
+		async = new AsyncHandler();
+		async.setSession(new ActorSession());
+		async.setPoolSize(1);
+		async.setQueueCapacity(1);
+		async.start();
+	}
+
+	@After
+	public void cleanup() {
+		async.stop();
+	}
+
+	@Test(timeout = 10000L)
+	public void 실행을_받지_않은_요청은_실패한_요청으로_모은다() {
+		CountDownLatch release = new CountDownLatch(1);
+		RestScatter scatter = new RestScatter(async, 5000L)
+				.add("slow", () -> {
+					await(release);
+					return "slow";
+				})
+				.add("queued", () -> "queued")
+				.add("rejected", () -> "rejected");
+		release.countDown();
+		Gathered result = scatter.gather();
+		assertThat(result.<String>get("slow").get()).isEqualTo("slow");
+		assertThat(result.<String>get("queued").get()).isEqualTo("queued");
+		assertThat(result.failed()).containsOnly("rejected");
+		assertThat(result.error("rejected").get()).isInstanceOf(RejectedExecutionException.class);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
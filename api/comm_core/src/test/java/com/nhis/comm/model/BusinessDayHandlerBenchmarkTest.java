@@ -0,0 +1,71 @@
+package com.nhis.comm.model;
+
+import com.nhis.comm.context.Timestamper;
+import com.nhis.comm.model.BusinessDayHandlerTest.StubHolidayAccessor;
+import com.nhis.comm.model.master.Holiday;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ * BusinessDayHandler의 일괄 계산 벤치마크. 100만 건의 영업일 이동 / 영업일 수 계산의 처리 시간을 로그 (INFO)로 출력합니다.
+ * <p> 처리 시간은 실행 환경에 따라 다르므로 Rounds 회 중 가장 빠른 회가 MaxMillis 안인 것을 검증합니다.
+ * 그 외에 계산 결과와 휴일 마스터의 검색 횟수를 검증합니다.
+ * (로컬에서는 10-25ms 정도이며, 상한은 느린 CI에서도 넘지 않도록 여유를 둡니다)
+ */
+public class BusinessDayHandlerBenchmarkTest {
+	private static final Logger logger = LoggerFactory.getLogger(BusinessDayHandlerBenchmarkTest.class);
+	private static final int Size = 1000000;
+	private static final int Rounds = 5;
+	private static final long MaxMillis = 500L;
+
+	@Test
+	public void 일괄_계산의_처리_시간() {
+		StubHolidayAccessor accessor = new StubHolidayAccessor();
+		for (int year = 2010; year <= 2030; year++) {
+			accessor.add(Holiday.CategoryDefault, LocalDate.of(year, 1, 1), LocalDate.of(year, 3, 1),
+					LocalDate.of(year, 5, 5), LocalDate.of(year, 8, 15), LocalDate.of(year, 10, 3), LocalDate.of(year, 12, 25));
+		}
+		BusinessDayHandler handler = new BusinessDayHandler(new Timestamper(), accessor);
+		LocalDate[] baseDays = new LocalDate[Size];
+		int[] daysToAdd = new int[Size];
+		for (int i = 0; i < Size; i++) {
+			baseDays[i] = LocalDate.of(2015, 1, 1).plusDays(i % 3650);
+			daysToAdd[i] = i % 61 - 30;
+		}
+		long best = Long.MAX_VALUE;
+		logger.info("round | days(int) (ms) | days(int[]) (ms) | businessDaysBetween (ms)");
+		for (int round = 1; round <= Rounds; round++) {
+			long begin = System.nanoTime();
+			handler.days(baseDays, 2, Holiday.CategoryDefault);
+			long shiftBy = elapsedMillis(begin);
+			begin = System.nanoTime();
+			LocalDate[] shifted = handler.days(baseDays, daysToAdd, Holiday.CategoryDefault);
+			long shift = elapsedMillis(begin);
+			begin = System.nanoTime();
+			int[] counts = handler.businessDaysBetween(baseDays, shifted, Holiday.CategoryDefault);
+			long between = elapsedMillis(begin);
+			logger.info(String.format("%5d | %14d | %16d | %24d", round, shiftBy, shift, between));
+			best = Math.min(best, Math.max(shiftBy, Math.max(shift, between)));
+			for (int i = 0; i < Size; i += 9973) {
+				if (handler.isBusinessDay(baseDays[i], Holiday.CategoryDefault)) {
+					assertThat(counts[i]).isEqualTo(daysToAdd[i]);
+				}
+			}
+		}
+		assertThat(best).isLessThan(MaxMillis);
+		assertThat(accessor.getHolidayCount.get()).isEqualTo(0);
+		assertThat(accessor.findHolidayCount.get()).isLessThanOrEqualTo(12);
+	}
+
+	private long elapsedMillis(long begin) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+	}
+
+}
@@ -0,0 +1,168 @@
+package com.nhis.comm.model;
+
+import com.nhis.comm.context.Timestamper;
+import com.nhis.comm.model.BusinessDayHandler.HolidayAccessor;
+import com.nhis.comm.model.master.Holiday;
+import com.nhis.comm.util.DateUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created by sewoo on 2017. 2. 25..
+ */
+public class BusinessDayHandlerTest {
+	private static final String CategoryBank = "bank";
+
+	private StubHolidayAccessor accessor;
+	private BusinessDayHandler handler;
+
+	@Before
+	public void setup() {
+		accessor = new StubHolidayAccessor();
+		accessor.add(Holiday.CategoryDefault, LocalDate.of(2016, 12, 30), LocalDate.of(2017, 1, 2),
+				LocalDate.of(2017, 5, 5), LocalDate.of(2018, 1, 1));
+		accessor.add(CategoryBank, LocalDate.of(2016, 12, 30), LocalDate.of(2017, 1, 2), LocalDate.of(2017, 1, 3));
+		handler = new BusinessDayHandler(new Timestamper(), accessor);
+	}
+
+	@Test
+	public void 연도를_넘어서_영업일을_이동한다() {
+		LocalDate thursday = LocalDate.of(2016, 12, 29);
+		LocalDate tuesday = LocalDate.of(2017, 1, 3);
+		assertThat(handler.day(thursday, 1)).isEqualTo(tuesday);
+		assertThat(handler.day(tuesday, -1)).isEqualTo(thursday);
+		assertThat(handler.day(thursday, 1, CategoryBank)).isEqualTo(LocalDate.of(2017, 1, 4));
+		assertThat(handler.day(LocalDate.of(2017, 1, 4), -1, CategoryBank)).isEqualTo(thursday);
+		assertThat(handler.businessDaysBetween(thursday, tuesday)).isEqualTo(1);
+		assertThat(handler.businessDaysBetween(tuesday, thursday)).isEqualTo(-1);
+		assertThat(handler.businessDaysBetween(thursday, LocalDate.of(2018, 1, 2)))
+				.isEqualTo(handler.businessDaysBetween(thursday, LocalDate.of(2017, 12, 29)) + 1);
+	}
+
+	@Test
+	public void 휴일이나_주말의_기준일은_전후의_영업일로_이동한다() {
+		LocalDate holiday = LocalDate.of(2016, 12, 30);
+		LocalDate saturday = LocalDate.of(2016, 12, 31);
+		for (LocalDate baseDay : Arrays.asList(holiday, saturday)) {
+			assertThat(handler.isBusinessDay(baseDay)).isFalse();
+			assertThat(handler.day(baseDay, 0)).isEqualTo(baseDay);
+			assertThat(handler.day(baseDay, 1)).isEqualTo(LocalDate.of(2017, 1, 3));
+			assertThat(handler.day(baseDay, -1)).isEqualTo(LocalDate.of(2016, 12, 29));
+		}
+	}
+
+	@Test
+	public void 한_단계씩_이동하는_계산과_같은_결과를_반환한다() {
+		for (String category : Arrays.asList(Holiday.CategoryDefault, CategoryBank)) {
+			Set<LocalDate> holidays = accessor.holidays(category);
+			for (LocalDate baseDay = LocalDate.of(2016, 11, 1); baseDay.isBefore(LocalDate.of(2018, 3, 1)); baseDay = baseDay.plusDays(1)) {
+				for (int daysToAdd : new int[] { -400, -260, -30, -5, -1, 0, 1, 5, 30, 260, 400 }) {
+					LocalDate expected = stepDay(baseDay, daysToAdd, holidays);
+					assertThat(handler.day(baseDay, daysToAdd, category)).as("%s %s %d", category, baseDay, daysToAdd)
+							.isEqualTo(expected);
+					if (handler.isBusinessDay(baseDay, category)) {
+						assertThat(handler.businessDaysBetween(baseDay, expected, category)).isEqualTo(daysToAdd);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void 일괄_계산은_휴일_마스터를_연도별로_한_번만_검색한다() {
+		LocalDate[] baseDays = new LocalDate[3000];
+		int[] daysToAdd = new int[baseDays.length];
+		for (int i = 0; i < baseDays.length; i++) {
+			baseDays[i] = LocalDate.of(2016, 1, 1).plusDays(i % 1000);
+			daysToAdd[i] = i % 41 - 20;
+		}
+		baseDays[7] = null;
+		LocalDate[] shifted = handler.days(baseDays, daysToAdd, CategoryBank);
+		LocalDate[] shiftedBy = handler.days(baseDays, 3, CategoryBank);
+		int[] between = handler.businessDaysBetween(baseDays, shifted, CategoryBank);
+		Set<LocalDate> holidays = accessor.holidays(CategoryBank);
+		for (int i = 0; i < baseDays.length; i++) {
+			if (baseDays[i] == null) {
+				assertThat(shifted[i]).isNull();
+				assertThat(shiftedBy[i]).isNull();
+				assertThat(between[i]).isEqualTo(0);
+				continue;
+			}
+			assertThat(shifted[i]).isEqualTo(stepDay(baseDays[i], daysToAdd[i], holidays));
+			assertThat(shiftedBy[i]).isEqualTo(stepDay(baseDays[i], 3, holidays));
+			if (handler.isBusinessDay(baseDays[i], CategoryBank)) {
+				assertThat(between[i]).isEqualTo(daysToAdd[i]);
+			}
+		}
+		assertThat(accessor.getHolidayCount.get()).isEqualTo(0);
+		assertThat(accessor.findHolidayCount.get()).isLessThanOrEqualTo(5);
+
+		handler.refresh();
+		handler.days(baseDays, daysToAdd, CategoryBank);
+		assertThat(accessor.findHolidayCount.get()).isLessThanOrEqualTo(10);
+	}
+
+	/** 변경 전의 day(n)와 같이 하루씩 이동하여 영업일을 찾습니다. */
+	private static LocalDate stepDay(LocalDate baseDay, int daysToAdd, Set<LocalDate> holidays) {
+		LocalDate day = baseDay;
+		int step = daysToAdd < 0 ? -1 : 1;
+		for (int i = 0; i < Math.abs(daysToAdd); i++) {
+			day = day.plusDays(step);
+			while (DateUtils.isWeekend(day) || holidays.contains(day)) {
+				day = day.plusDays(step);
+			}
+		}
+		return day;
+	}
+
+	/** 메모리 상의 휴일로 검색 건수를 세는 액세서 */
+	static class StubHolidayAccessor extends HolidayAccessor {
+		private final List<Holiday> holidays = new ArrayList<>();
+		final AtomicInteger getHolidayCount = new AtomicInteger();
+		final AtomicInteger findHolidayCount = new AtomicInteger();
+
+		StubHolidayAccessor() {
+			super(null);
+		}
+
+		void add(String category, LocalDate... days) {
+			for (LocalDate day : days) {
+				Holiday holiday = new Holiday();
+				holiday.setCategory(category);
+				holiday.setDay(day);
+				holidays.add(holiday);
+			}
+		}
+
+		Set<LocalDate> holidays(String category) {
+			return holidays.stream().filter(v -> v.getCategory().equals(category)).map(Holiday::getDay)
+					.collect(Collectors.toCollection(HashSet::new));
+		}
+
+		@Override
+		public Optional<Holiday> getHoliday(LocalDate day) {
+			getHolidayCount.incrementAndGet();
+			return holidays.stream().filter(v -> v.getDay().equals(day)).findFirst();
+		}
+
+		@Override
+		public List<Holiday> findHoliday(int year, String category) {
+			findHolidayCount.incrementAndGet();
+			return holidays.stream().filter(v -> v.getCategory().equals(category) && v.getDay().getYear() == year)
+					.collect(Collectors.toList());
+		}
+	}
+
+}
@@ -56,7 +56,7 @@ public class ApiAppConfig {
 
 		/**
 		 * 요청에 이용자 정보가 설정되어 있던 때는 그냥 스레드 로컬에 끈 지어 있습니다
-		 * <p>동기화 Servlet에서만 제대로 동작 합니다.
+		 * <p>비동기 Servlet의 재디스패치에서도 다시 적용합니다.
 		 */
 		@Bean
 		public RestActorSessionBindFilter restActorSessionBindFilter() {
@@ -65,7 +65,7 @@ public class ApiAppConfig {
 
 		/**
 		 * 요청에 이용자 정보가 설정되어 있던 때는 그냥 스레드 로컬에 끈 지어 있습니다
-		 * <p>동기화 Servlet에서만 제대로 동작 합니다.
+		 * <p>비동기 Servlet의 재디스패치에서도 다시 적용합니다.
 		 */
 		@Bean
 		public RestActorSessionBindFilter restActorSessionBindFilter(ActorSession session) {